@@ -0,0 +1,376 @@
+package practice.datastructures;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+
+/**
+ * A compressed sparse row (CSR) representation of a directed or undirected
+ * graph. Where <code>GraphPractice</code> stores every vertex's neighbors in
+ * its own <code>ArrayList&lt;Integer&gt;</code>, a <code>CSRGraph</code> keeps
+ * all neighbors of all vertices in one <code>int[] targets</code> array. The
+ * neighbors of vertex u are found at <code>targets[offsets[u]]</code> up to
+ * (but not including) <code>targets[offsets[u + 1]]</code>, so visiting a
+ * neighbor never unboxes an <code>Integer</code> or follows a list pointer.
+ * <p>
+ * A <code>CSRGraph</code> is immutable once built. Use a <code>Builder</code>
+ * with the same <code>addEdge()</code>/<code>addUndirectedEdge()</code> calls
+ * used on an adjacency list, or convert an existing adjacency list with
+ * <code>fromAdjacencyList()</code>.
+ *
+ * @author sarablinn
+ *
+ */
+public class CSRGraph {
+
+	private final int[] offsets;
+	private final int[] targets;
+	private final int[] weights;
+
+	/**
+	 * Creates a graph directly from its offsets and targets arrays.
+	 * offsets must have one more entry than there are vertices, with
+	 * offsets[0] == 0 and offsets[vertexCount] == targets.length.
+	 * @param offsets int array
+	 * @param targets int array
+	 */
+	CSRGraph(int[] offsets, int[] targets) {
+		this(offsets, targets, null);
+	}
+
+	/**
+	 * Creates a weighted graph directly from its offsets, targets and
+	 * weights arrays, where weights[e] is the weight of the edge to
+	 * targets[e].
+	 * @param offsets int array
+	 * @param targets int array
+	 * @param weights int array, or null for an unweighted graph
+	 */
+	CSRGraph(int[] offsets, int[] targets, int[] weights) {
+		this.offsets = offsets;
+		this.targets = targets;
+		this.weights = weights;
+	}
+
+	/**
+	 * For subclasses that keep their offsets and targets somewhere other
+	 * than int arrays, and override every accessor below.
+	 */
+	CSRGraph() {
+		this(null, null, null);
+	}
+
+	/**
+	 * Returns the number of vertices in the graph.
+	 * @return int
+	 */
+	public int vertexCount() { return offsets.length - 1; }
+
+	/**
+	 * Returns the number of directed edges stored in the graph. An edge
+	 * added with addUndirectedEdge() is stored once in each direction and
+	 * so counts twice.
+	 * @return int
+	 */
+	public int edgeCount() { return targets.length; }
+
+	/**
+	 * Returns the index in the targets array of vertex u's first neighbor.
+	 * @param u vertex
+	 * @return int
+	 */
+	public int edgesBegin(int u) { return offsets[u]; }
+
+	/**
+	 * Returns the index in the targets array just past vertex u's last
+	 * neighbor.
+	 * @param u vertex
+	 * @return int
+	 */
+	public int edgesEnd(int u) { return offsets[u + 1]; }
+
+	/**
+	 * Returns the vertex at the far end of the edge at the given index
+	 * of the targets array.
+	 * @param edge int
+	 * @return int vertex
+	 */
+	public int target(int edge) { return targets[edge]; }
+
+	/**
+	 * Returns true if every edge carries a weight.
+	 * @return boolean
+	 */
+	public boolean hasWeights() { return weights != null; }
+
+	/**
+	 * Returns the weight of the edge at the given index of the targets
+	 * array. Only valid if hasWeights().
+	 * @param edge int
+	 * @return int weight
+	 */
+	public int weight(int edge) { return weights[edge]; }
+
+	/**
+	 * Returns the number of edges leaving vertex u.
+	 * @param u vertex
+	 * @return int
+	 */
+	public int degree(int u) { return edgesEnd(u) - edgesBegin(u); }
+
+	/**
+	 * Returns a copy of vertex u's neighbors, in the order they were added.
+	 * @param u vertex
+	 * @return int array
+	 */
+	public int[] neighbors(int u) {
+		int[] neighbors = new int[degree(u)];
+		for (int e = edgesBegin(u), i = 0; e < edgesEnd(u); e++, i++) {
+			neighbors[i] = target(e);
+		}
+		return neighbors;
+	}
+
+	/**
+	 * Returns the graph with every edge reversed, so that the neighbors of
+	 * u in the transpose are the vertices with an edge into u. A graph built
+	 * only with addUndirectedEdge() is its own transpose.
+	 * @return CSRGraph
+	 */
+	public CSRGraph transpose() {
+		int numVertices = vertexCount();
+		int numEdges = edgeCount();
+		int[] newOffsets = new int[numVertices + 1];
+		for (int e = 0; e < numEdges; e++) {
+			newOffsets[target(e) + 1]++;
+		}
+		for (int u = 0; u < numVertices; u++) {
+			newOffsets[u + 1] += newOffsets[u];
+		}
+		int[] cursor = Arrays.copyOf(newOffsets, numVertices);
+		int[] newTargets = new int[numEdges];
+		int[] newWeights = hasWeights() ? new int[numEdges] : null;
+		for (int u = 0; u < numVertices; u++) {
+			for (int e = edgesBegin(u); e < edgesEnd(u); e++) {
+				int slot = cursor[target(e)]++;
+				newTargets[slot] = u;
+				if (newWeights != null) {
+					newWeights[slot] = weight(e);
+				}
+			}
+		}
+		return new CSRGraph(newOffsets, newTargets, newWeights);
+	}
+
+	/**
+	 * Converts an Adjacency List built with GraphPractice.addEdge() or
+	 * GraphPractice.addUndirectedEdge() into a CSRGraph, keeping the
+	 * order of every vertex's neighbors.
+	 * @param adj ArrayList<ArrayList<Integer>>
+	 * @return CSRGraph
+	 */
+	public static CSRGraph fromAdjacencyList(ArrayList<ArrayList<Integer>> adj) {
+		int numVertices = adj.size();
+		int[] offsets = new int[numVertices + 1];
+		for (int u = 0; u < numVertices; u++) {
+			offsets[u + 1] = offsets[u] + adj.get(u).size();
+		}
+		int[] targets = new int[offsets[numVertices]];
+		for (int u = 0; u < numVertices; u++) {
+			int e = offsets[u];
+			for (int v : adj.get(u)) {
+				targets[e++] = v;
+			}
+		}
+		return new CSRGraph(offsets, targets);
+	}
+
+	//———————————————————————————————————————————————————————————
+
+	/**
+	 * Collects edges into growable primitive arrays and then lays them out
+	 * as a CSRGraph in two passes: one to count every vertex's degree, and
+	 * one to place each edge in its vertex's row. Vertices are added as
+	 * needed, just as GraphPractice.addEdge() calls addNode().
+	 */
+	public static class Builder {
+		// PRIMARY marks the (u, v) half of an undirected edge, which is
+		// dropped if u already had v as a neighbor; SECONDARY marks the
+		// (v, u) half, which is dropped along with it.
+		private static final byte DIRECTED = 0;
+		private static final byte PRIMARY = 1;
+		private static final byte SECONDARY = 2;
+
+		private int numVertices;
+		private int numEdges = 0;
+		private int[] src = new int[16];
+		private int[] dst = new int[16];
+		private byte[] kind = new byte[16];
+		private boolean hasUndirected = false;
+		private int duplicates = 0;
+
+		public Builder() { this(0); }
+
+		/**
+		 * Creates a builder that starts out with the given number of
+		 * vertices and no edges.
+		 * @param vertices int
+		 */
+		public Builder(int vertices) { this.numVertices = vertices; }
+
+		/**
+		 * Adds a new node/vertex with no edges.
+		 * @return int the new vertex
+		 */
+		public int addNode() { return numVertices++; }
+
+		/**
+		 * Adds a directed edge from vertex u to vertex v.
+		 * @param u vertex
+		 * @param v vertex
+		 * @return Builder
+		 */
+		public Builder addEdge(int u, int v) {
+			append(u, v, DIRECTED);
+			return this;
+		}
+
+		/**
+		 * Adds an undirected edge between vertex u and vertex v. As with
+		 * GraphPractice.addUndirectedEdge(), the edge is skipped if v was
+		 * already a neighbor of u when it was added; such edges are counted
+		 * by getDuplicates() once build() has run.
+		 * @param u vertex
+		 * @param v vertex
+		 * @return Builder
+		 */
+		public Builder addUndirectedEdge(int u, int v) {
+			append(u, v, PRIMARY);
+			append(v, u, SECONDARY);
+			hasUndirected = true;
+			return this;
+		}
+
+		/**
+		 * Returns the number of undirected edges skipped as repeats by the
+		 * last call to build().
+		 * @return int
+		 */
+		public int getDuplicates() { return duplicates; }
+
+		private void append(int u, int v, byte k) {
+			if (u < 0 || v < 0) {
+				throw new IllegalArgumentException("Negative vertex: (" + u + ", " + v + ")");
+			}
+			if (numEdges == src.length) {
+				int capacity = src.length * 2;
+				src = Arrays.copyOf(src, capacity);
+				dst = Arrays.copyOf(dst, capacity);
+				kind = Arrays.copyOf(kind, capacity);
+			}
+			src[numEdges] = u;
+			dst[numEdges] = v;
+			kind[numEdges] = k;
+			numEdges++;
+			numVertices = Math.max(numVertices, Math.max(u, v) + 1);
+		}
+
+		/**
+		 * Lays out every edge added so far as a CSRGraph. Each vertex's
+		 * neighbors keep the order in which they were added.
+		 * @return CSRGraph
+		 */
+		public CSRGraph build() {
+			int[] offsets = new int[numVertices + 1];
+			for (int e = 0; e < numEdges; e++) {
+				offsets[src[e] + 1]++;
+			}
+			for (int u = 0; u < numVertices; u++) {
+				offsets[u + 1] += offsets[u];
+			}
+			// stable scatter: position[e] is where edge e lands in targets
+			int[] cursor = Arrays.copyOf(offsets, numVertices);
+			int[] position = new int[numEdges];
+			int[] targets = new int[numEdges];
+			for (int e = 0; e < numEdges; e++) {
+				int p = cursor[src[e]]++;
+				position[e] = p;
+				targets[p] = dst[e];
+			}
+			duplicates = 0;
+			if (!hasUndirected) {
+				return new CSRGraph(offsets, targets);
+			}
+			return removeRepeats(offsets, targets, position);
+		}
+
+		/**
+		 * Drops every undirected edge (u, v) whose row u already held v when
+		 * it was added, together with its (v, u) half.
+		 */
+		private CSRGraph removeRepeats(int[] offsets, int[] targets, int[] position) {
+			// group[p] numbers the distinct (u, v) pairs: edges at positions
+			// with equal groups are repeats of one another
+			int[] group = new int[numEdges];
+			int numGroups = 0;
+			long[] scratch = new long[16];
+			for (int u = 0; u < numVertices; u++) {
+				int begin = offsets[u];
+				int degree = offsets[u + 1] - begin;
+				if (scratch.length < degree) {
+					scratch = new long[Math.max(degree, scratch.length * 2)];
+				}
+				for (int i = 0; i < degree; i++) {
+					scratch[i] = ((long) targets[begin + i] << 32) | i;
+				}
+				Arrays.sort(scratch, 0, degree);
+				for (int i = 0; i < degree; i++) {
+					if (i == 0 || (scratch[i] >>> 32) != (scratch[i - 1] >>> 32)) {
+						numGroups++;
+					}
+					group[begin + (int) scratch[i]] = numGroups - 1;
+				}
+			}
+			// replay the edges in the order they were added, as the adjacency
+			// list's contains() check would have seen them
+			boolean[] present = new boolean[numGroups];
+			boolean[] dropped = new boolean[numEdges];
+			for (int e = 0; e < numEdges; e++) {
+				int p = position[e];
+				if (kind[e] == PRIMARY) {
+					// addUndirectedEdge() appends the (v, u) half right after
+					int q = position[e + 1];
+					if (present[group[p]]) {
+						dropped[p] = true;
+						dropped[q] = true;
+						duplicates++;
+					}
+					else {
+						present[group[p]] = true;
+						present[group[q]] = true;
+					}
+					e++;
+				}
+				else {
+					present[group[p]] = true;
+				}
+			}
+			if (duplicates == 0) {
+				return new CSRGraph(offsets, targets);
+			}
+			int[] newOffsets = new int[numVertices + 1];
+			int[] newTargets = new int[numEdges - 2 * duplicates];
+			int k = 0;
+			for (int u = 0; u < numVertices; u++) {
+				for (int p = offsets[u]; p < offsets[u + 1]; p++) {
+					if (!dropped[p]) {
+						newTargets[k++] = targets[p];
+					}
+				}
+				newOffsets[u + 1] = k;
+			}
+			return new CSRGraph(newOffsets, newTargets);
+		}
+	}
+
+}
@@ -0,0 +1,304 @@
+package practice.datastructures;
+
+import java.util.Arrays;
+
+
+/**
+ * An adjacency list graph that writer threads can add to while any number
+ * of reader threads traverse it, without readers ever taking a lock.
+ * <p>
+ * Readers work on a <code>Snapshot</code>: an immutable version of the graph
+ * taken with <code>snapshot()</code>. Writers call <code>addEdge()</code> and
+ * <code>addUndirectedEdge()</code> as they would on a GraphPractice adjacency
+ * list, but their edges are only queued. Every <code>batchSize</code> edges,
+ * or whenever <code>publish()</code> is called, the queued edges are applied
+ * and a new Snapshot replaces the current one in a single volatile write.
+ * Readers holding an older Snapshot keep seeing exactly the edges it had.
+ * <p>
+ * Publishing does not copy the whole graph. Vertices are grouped in chunks
+ * of 64, and only the chunks holding a changed vertex are copied, as arrays
+ * of row references and row lengths. Rows themselves are shared between
+ * versions: a new edge is written just past the end that older Snapshots
+ * can see, and a row is only copied when it runs out of room.
+ *
+ * @author sarablinn
+ *
+ */
+public class ConcurrentGraph {
+
+	private static final int CHUNK_BITS = 6;
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+	private static final int[] NO_NEIGHBORS = new int[0];
+
+	private final int batchSize;
+	private final Object writeLock = new Object();
+	private volatile Snapshot current = new Snapshot(0, 0, 0, new int[0][][], new int[0][]);
+
+	// the queued batch, guarded by writeLock
+	private int pendingVertices = 0;
+	private int pendingEdges = 0;
+	private int[] pendingSrc = new int[16];
+	private int[] pendingDst = new int[16];
+	private boolean[] pendingUndirected = new boolean[16];
+
+	public ConcurrentGraph() { this(1024); }
+
+	/**
+	 * Creates an empty graph that publishes a new Snapshot every batchSize
+	 * queued edges.
+	 * @param batchSize int
+	 */
+	public ConcurrentGraph(int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+		}
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Returns the latest published Snapshot. It never changes, so it may be
+	 * traversed for as long as needed while writers carry on.
+	 * @return Snapshot
+	 */
+	public Snapshot snapshot() { return current; }
+
+	/**
+	 * Adds a new node/vertex with no edges. It is seen by readers once the
+	 * next Snapshot is published.
+	 * @return int the new vertex
+	 */
+	public int addNode() {
+		synchronized (writeLock) {
+			return pendingVertices++;
+		}
+	}
+
+	/**
+	 * Queues a directed edge from vertex u to vertex v, adding vertices as
+	 * needed.
+	 * @param u vertex
+	 * @param v vertex
+	 */
+	public void addEdge(int u, int v) {
+		enqueue(u, v, false);
+	}
+
+	/**
+	 * Queues an undirected edge between vertex u and vertex v. As with
+	 * GraphPractice.addUndirectedEdge(), the edge is skipped if v is already
+	 * a neighbor of u when the batch is published.
+	 * @param u vertex
+	 * @param v vertex
+	 */
+	public void addUndirectedEdge(int u, int v) {
+		enqueue(u, v, true);
+	}
+
+	private void enqueue(int u, int v, boolean undirected) {
+		if (u < 0 || v < 0) {
+			throw new IllegalArgumentException("Negative vertex: (" + u + ", " + v + ")");
+		}
+		synchronized (writeLock) {
+			if (pendingEdges == pendingSrc.length) {
+				int capacity = pendingEdges * 2;
+				pendingSrc = Arrays.copyOf(pendingSrc, capacity);
+				pendingDst = Arrays.copyOf(pendingDst, capacity);
+				pendingUndirected = Arrays.copyOf(pendingUndirected, capacity);
+			}
+			pendingSrc[pendingEdges] = u;
+			pendingDst[pendingEdges] = v;
+			pendingUndirected[pendingEdges] = undirected;
+			pendingEdges++;
+			pendingVertices = Math.max(pendingVertices, Math.max(u, v) + 1);
+			if (pendingEdges >= batchSize) {
+				publish();
+			}
+		}
+	}
+
+	/**
+	 * Applies every queued vertex and edge and makes the result the current
+	 * Snapshot. Returns the current Snapshot, which is unchanged if nothing
+	 * was queued.
+	 * @return Snapshot
+	 */
+	public Snapshot publish() {
+		synchronized (writeLock) {
+			Snapshot old = current;
+			int numVertices = Math.max(old.numVertices, pendingVertices);
+			if (pendingEdges == 0 && numVertices == old.numVertices) {
+				return old;
+			}
+			int numChunks = (numVertices + CHUNK_MASK) >>> CHUNK_BITS;
+			int[][][] rows = Arrays.copyOf(old.rows, numChunks);
+			int[][] lengths = Arrays.copyOf(old.lengths, numChunks);
+			boolean[] copied = new boolean[numChunks];
+			long numEdges = old.numEdges;
+			for (int e = 0; e < pendingEdges; e++) {
+				int u = pendingSrc[e], v = pendingDst[e];
+				if (pendingUndirected[e]) {
+					if (contains(rows, lengths, u, v)) {
+						continue;
+					}
+					append(rows, lengths, copied, v, u);
+					numEdges++;
+				}
+				append(rows, lengths, copied, u, v);
+				numEdges++;
+			}
+			pendingEdges = 0;
+			current = new Snapshot(old.version + 1, numVertices, numEdges, rows, lengths);
+			return current;
+		}
+	}
+
+	private static boolean contains(int[][][] rows, int[][] lengths, int u, int v) {
+		int c = u >>> CHUNK_BITS;
+		if (rows[c] == null || rows[c][u & CHUNK_MASK] == null) {
+			return false;
+		}
+		int[] row = rows[c][u & CHUNK_MASK];
+		for (int i = 0, length = lengths[c][u & CHUNK_MASK]; i < length; i++) {
+			if (row[i] == v) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Adds v to the end of u's row, first copying u's chunk if this batch
+	 * has not yet copied it, and growing the row if it is full.
+	 */
+	private static void append(int[][][] rows, int[][] lengths, boolean[] copied, int u, int v) {
+		int c = u >>> CHUNK_BITS, i = u & CHUNK_MASK;
+		if (!copied[c]) {
+			rows[c] = rows[c] == null ? new int[CHUNK_SIZE][] : rows[c].clone();
+			lengths[c] = lengths[c] == null ? new int[CHUNK_SIZE] : lengths[c].clone();
+			copied[c] = true;
+		}
+		int[] row = rows[c][i];
+		int length = lengths[c][i];
+		if (row == null || length == row.length) {
+			// older Snapshots keep the old array, so it is never written again
+			row = row == null ? new int[4] : Arrays.copyOf(row, length * 2);
+			rows[c][i] = row;
+		}
+		row[length] = v;
+		lengths[c][i] = length + 1;
+	}
+
+	//———————————————————————————————————————————————————————————
+
+	/**
+	 * One published version of a ConcurrentGraph. A Snapshot never changes,
+	 * so any number of threads may read it at once.
+	 */
+	public static final class Snapshot {
+		private final long version;
+		private final int numVertices;
+		private final long numEdges;
+		private final int[][][] rows;
+		private final int[][] lengths;
+
+		private Snapshot(long version, int numVertices, long numEdges, int[][][] rows,
+				int[][] lengths) {
+			this.version = version;
+			this.numVertices = numVertices;
+			this.numEdges = numEdges;
+			this.rows = rows;
+			this.lengths = lengths;
+		}
+
+		/**
+		 * Returns the number of times the graph had been published when
+		 * this Snapshot was taken.
+		 * @return long
+		 */
+		public long getVersion() { return version; }
+
+		public int vertexCount() { return numVertices; }
+
+		/**
+		 * Returns the number of directed edges; an undirected edge counts
+		 * twice.
+		 * @return long
+		 */
+		public long edgeCount() { return numEdges; }
+
+		public int degree(int u) {
+			int[] length = lengths[u >>> CHUNK_BITS];
+			return length == null ? 0 : length[u & CHUNK_MASK];
+		}
+
+		/**
+		 * Returns the i-th neighbor of vertex u, in the order they were added.
+		 * @param u vertex
+		 * @param i int between 0 and degree(u) - 1
+		 * @return int vertex
+		 */
+		public int neighbor(int u, int i) {
+			return row(u)[i];
+		}
+
+		/**
+		 * Returns a copy of vertex u's neighbors, in the order they were added.
+		 * @param u vertex
+		 * @return int array
+		 */
+		public int[] neighbors(int u) {
+			return Arrays.copyOf(row(u), degree(u));
+		}
+
+		private int[] row(int u) {
+			int[][] chunk = rows[u >>> CHUNK_BITS];
+			int[] row = chunk == null ? null : chunk[u & CHUNK_MASK];
+			return row == null ? NO_NEIGHBORS : row;
+		}
+
+		/**
+		 * Breadth First Search from the start vertex, as in
+		 * GraphPractice.breadthFirstSearch(CSRGraph, int).
+		 * @param start vertex
+		 * @return int array of the vertices in the order they were visited
+		 */
+		public int[] breadthFirstSearch(int start) {
+			boolean[] visited = new boolean[numVertices];
+			int[] queue = new int[numVertices];
+			int head = 0, tail = 0;
+			visited[start] = true;
+			queue[tail++] = start;
+			while (head < tail) {
+				int u = queue[head++];
+				int[] row = row(u);
+				for (int i = 0, degree = degree(u); i < degree; i++) {
+					int v = row[i];
+					if (!visited[v]) {
+						visited[v] = true;
+						queue[tail++] = v;
+					}
+				}
+			}
+			return Arrays.copyOf(queue, tail);
+		}
+
+		/**
+		 * Copies this Snapshot into a CSRGraph, for use with the CSRGraph
+		 * algorithms such as ParallelBFS.
+		 * @return CSRGraph
+		 */
+		public CSRGraph toCSRGraph() {
+			int[] offsets = new int[numVertices + 1];
+			for (int u = 0; u < numVertices; u++) {
+				offsets[u + 1] = offsets[u] + degree(u);
+			}
+			int[] targets = new int[offsets[numVertices]];
+			for (int u = 0; u < numVertices; u++) {
+				System.arraycopy(row(u), 0, targets, offsets[u], degree(u));
+			}
+			return new CSRGraph(offsets, targets);
+		}
+	}
+
+}
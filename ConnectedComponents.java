@@ -0,0 +1,244 @@
+package practice.datastructures;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+
+/**
+ * Parallel connected components of a CSRGraph, using the Afforest variant
+ * of Shiloach-Vishkin (Sutton et al.). Every vertex starts as the root of
+ * its own tree in a parent array. An edge (u, v) is <i>linked</i> by hooking
+ * the higher of the two roots under the lower one with a compare-and-set,
+ * and <i>compressing</i> points every vertex straight at its root.
+ * <ol>
+ * <li>Link only the first NEIGHBOR_ROUNDS edges of every vertex, and
+ * compress. On most graphs this already joins nearly all of the biggest
+ * component.</li>
+ * <li>Sample a few vertices to guess the biggest component.</li>
+ * <li>Link the remaining edges of every vertex outside that component,
+ * and compress again.</li>
+ * </ol>
+ * Step 3 skips most of the graph's edges, since the biggest component
+ * usually holds most of them. The skip is only safe when every edge is
+ * stored in both directions, so a directed graph (whose components are
+ * then its weakly connected components) links every edge instead.
+ *
+ * @author sarablinn
+ *
+ */
+public class ConnectedComponents {
+
+	private static final int NEIGHBOR_ROUNDS = 2;
+	private static final int SAMPLES = 1024;
+
+	private static final VarHandle INT_ARRAY = MethodHandles.arrayElementVarHandle(int[].class);
+
+	//———————————————————————————————————————————————————————————
+
+	/**
+	 * The component of every vertex. Components are numbered 0 to
+	 * getCount() - 1 in the order of their lowest vertex, so the numbering
+	 * is the same on every run.
+	 */
+	public static class Result {
+		private final int[] labels;
+		private final int[] sizes;
+
+		Result(int[] labels, int[] sizes) {
+			this.labels = labels;
+			this.sizes = sizes;
+		}
+
+		public int[] getLabels() { return labels; }
+
+		public int getCount() { return sizes.length; }
+
+		/**
+		 * Returns the number of vertices in each component, indexed by label.
+		 * @return int array
+		 */
+		public int[] getSizes() { return sizes; }
+	}
+
+	//———————————————————————————————————————————————————————————
+
+	/**
+	 * Finds the components of the graph on the common ForkJoinPool.
+	 * @param graph CSRGraph
+	 * @param undirected boolean true if every edge (u, v) is also stored
+	 * as (v, u), as addUndirectedEdge() does
+	 * @return Result
+	 */
+	public static Result find(CSRGraph graph, boolean undirected) {
+		return find(graph, undirected, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Finds the components of the graph on the given ForkJoinPool.
+	 * @param graph CSRGraph
+	 * @param undirected boolean true if every edge (u, v) is also stored
+	 * as (v, u), as addUndirectedEdge() does
+	 * @param pool ForkJoinPool
+	 * @return Result
+	 */
+	public static Result find(CSRGraph graph, boolean undirected, ForkJoinPool pool) {
+		int numVertices = graph.vertexCount();
+		int[] parent = new int[numVertices];
+		int grain = ParallelLoops.grain(pool, numVertices, 1024);
+		ParallelLoops.sum(pool, 0, numVertices, grain, (lo, hi) -> {
+			for (int v = lo; v < hi; v++) {
+				parent[v] = v;
+			}
+			return 0;
+		});
+
+		for (int r = 0; r < NEIGHBOR_ROUNDS; r++) {
+			int round = r;
+			ParallelLoops.sum(pool, 0, numVertices, grain, (lo, hi) -> {
+				for (int u = lo; u < hi; u++) {
+					int e = graph.edgesBegin(u) + round;
+					if (e < graph.edgesEnd(u)) {
+						link(parent, u, graph.target(e));
+					}
+				}
+				return 0;
+			});
+			compress(parent, pool, grain);
+		}
+
+		int largest = undirected ? sampleLargest(parent) : -1;
+		ParallelLoops.sum(pool, 0, numVertices, grain, (lo, hi) -> {
+			for (int u = lo; u < hi; u++) {
+				if (parent[u] == largest) {
+					continue;
+				}
+				for (int e = graph.edgesBegin(u) + NEIGHBOR_ROUNDS; e < graph.edgesEnd(u); e++) {
+					link(parent, u, graph.target(e));
+				}
+			}
+			return 0;
+		});
+		compress(parent, pool, grain);
+		return label(parent, pool);
+	}
+
+	/**
+	 * Joins the trees of u and v. Every vertex's parent is lower than the
+	 * vertex itself, so the root of each tree is its lowest vertex.
+	 */
+	private static void link(int[] parent, int u, int v) {
+		int p1 = (int) INT_ARRAY.getVolatile(parent, u);
+		int p2 = (int) INT_ARRAY.getVolatile(parent, v);
+		while (p1 != p2) {
+			int high = Math.max(p1, p2);
+			int low = Math.min(p1, p2);
+			int highParent = (int) INT_ARRAY.getVolatile(parent, high);
+			if (highParent == low) {
+				return;
+			}
+			if (highParent == high && INT_ARRAY.compareAndSet(parent, high, high, low)) {
+				return;
+			}
+			// high was hooked by another worker: climb and try again
+			p1 = (int) INT_ARRAY.getVolatile(parent, highParent);
+			p2 = (int) INT_ARRAY.getVolatile(parent, low);
+		}
+	}
+
+	/**
+	 * Points every vertex at the root of its tree.
+	 */
+	private static void compress(int[] parent, ForkJoinPool pool, int grain) {
+		ParallelLoops.sum(pool, 0, parent.length, grain, (lo, hi) -> {
+			for (int v = lo; v < hi; v++) {
+				int p = parent[v];
+				while (p != parent[p]) {
+					p = parent[p];
+				}
+				parent[v] = p;
+			}
+			return 0;
+		});
+	}
+
+	/**
+	 * Returns the most common root among a sample of vertices.
+	 */
+	private static int sampleLargest(int[] parent) {
+		if (parent.length == 0) {
+			return -1;
+		}
+		SplittableRandom random = new SplittableRandom(parent.length);
+		int[] sample = new int[SAMPLES];
+		for (int i = 0; i < SAMPLES; i++) {
+			sample[i] = parent[random.nextInt(parent.length)];
+		}
+		Arrays.sort(sample);
+		int best = sample[0], bestRun = 0;
+		for (int i = 0, run = 0; i < SAMPLES; i++) {
+			run = i > 0 && sample[i] == sample[i - 1] ? run + 1 : 1;
+			if (run > bestRun) {
+				best = sample[i];
+				bestRun = run;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Numbers the roots in increasing order and labels every vertex with
+	 * the number of its root. Roots are counted block by block, so each
+	 * block can number its own roots from a prefix sum of the counts.
+	 */
+	private static Result label(int[] parent, ForkJoinPool pool) {
+		int numVertices = parent.length;
+		int blockSize = ParallelLoops.grain(pool, numVertices, 4096);
+		int numBlocks = (numVertices + blockSize - 1) / blockSize;
+		int[] firstLabel = new int[numBlocks + 1];
+		ParallelLoops.sum(pool, 0, numBlocks, 1, (lo, hi) -> {
+			for (int b = lo; b < hi; b++) {
+				int roots = 0;
+				for (int v = b * blockSize; v < Math.min(numVertices, (b + 1) * blockSize); v++) {
+					if (parent[v] == v) {
+						roots++;
+					}
+				}
+				firstLabel[b + 1] = roots;
+			}
+			return 0;
+		});
+		for (int b = 0; b < numBlocks; b++) {
+			firstLabel[b + 1] += firstLabel[b];
+		}
+
+		int[] labels = new int[numVertices];
+		ParallelLoops.sum(pool, 0, numBlocks, 1, (lo, hi) -> {
+			for (int b = lo; b < hi; b++) {
+				int next = firstLabel[b];
+				for (int v = b * blockSize; v < Math.min(numVertices, (b + 1) * blockSize); v++) {
+					if (parent[v] == v) {
+						labels[v] = next++;
+					}
+				}
+			}
+			return 0;
+		});
+		int grain = ParallelLoops.grain(pool, numVertices, 1024);
+		ParallelLoops.sum(pool, 0, numVertices, grain, (lo, hi) -> {
+			for (int v = lo; v < hi; v++) {
+				labels[v] = labels[parent[v]];
+			}
+			return 0;
+		});
+
+		int[] sizes = new int[firstLabel[numBlocks]];
+		for (int label : labels) {
+			sizes[label]++;
+		}
+		return new Result(labels, sizes);
+	}
+
+}
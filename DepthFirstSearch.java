@@ -0,0 +1,172 @@
+package practice.datastructures;
+
+import java.util.Arrays;
+
+
+/**
+ * An iterative Depth First Search engine over a CSRGraph. Instead of
+ * recurring, it keeps the current path on an explicit int stack, so
+ * paths millions of vertices deep cannot overflow the call stack.
+ * Visited vertices and vertices on the current path are tracked in
+ * <code>long[]</code> bitsets.
+ * <p>
+ * What to do with the search is left to a <code>Visitor</code>, which is
+ * told about every vertex and edge as the search meets them:
+ * <ul>
+ * <li><b>preVisit(v, parent)</b>: v was discovered through the tree edge
+ * (parent, v); parent is -1 for the vertex a search started from.</li>
+ * <li><b>postVisit(v, parent)</b>: everything reachable from v is done.</li>
+ * <li><b>backEdge(u, v)</b>: the edge (u, v) leads back to v, which is
+ * still on the current path, so the edge closes a cycle.</li>
+ * <li><b>crossEdge(u, v)</b>: directed graphs only; the edge (u, v) leads
+ * to an already finished vertex (a forward or cross edge).</li>
+ * </ul>
+ * Cycle detection, discovery/finish times and edge classification can then
+ * all be done by one visitor in one pass. The arrays are allocated once
+ * per engine and reused by every search, so a search allocates nothing.
+ * <p>
+ * In undirected mode (for graphs built with addUndirectedEdge()), the one
+ * edge back to a vertex's parent is skipped, and an edge to a finished
+ * vertex is the second sighting of a back edge already reported, so only
+ * back edges are reported.
+ *
+ * @author sarablinn
+ *
+ */
+public class DepthFirstSearch {
+
+	/**
+	 * Callbacks made by the search. Every method does nothing by default,
+	 * so a visitor only overrides what it needs.
+	 */
+	public interface Visitor {
+		default void preVisit(int v, int parent) {}
+
+		default void postVisit(int v, int parent) {}
+
+		default void backEdge(int u, int v) {}
+
+		default void crossEdge(int u, int v) {}
+	}
+
+	//———————————————————————————————————————————————————————————
+
+	private final CSRGraph graph;
+	private final boolean undirected;
+	private final long[] visited;
+	private final long[] onStack;
+	// one frame per vertex on the current path: the vertex, the next of its
+	// edges to examine, and the parent edge still to be skipped (or -1)
+	private final int[] stack;
+	private final int[] nextEdge;
+	private final int[] skipParent;
+	private boolean stopped = false;
+
+	/**
+	 * Creates a search engine for the given graph.
+	 * @param graph CSRGraph
+	 * @param undirected true if graph was built with addUndirectedEdge()
+	 */
+	public DepthFirstSearch(CSRGraph graph, boolean undirected) {
+		int numVertices = graph.vertexCount();
+		this.graph = graph;
+		this.undirected = undirected;
+		this.visited = new long[(numVertices + 63) >>> 6];
+		this.onStack = new long[visited.length];
+		this.stack = new int[numVertices];
+		this.nextEdge = new int[numVertices];
+		this.skipParent = new int[numVertices];
+	}
+
+	/**
+	 * Returns true if vertex v has been visited since the last reset().
+	 * @param v vertex
+	 * @return boolean
+	 */
+	public boolean isVisited(int v) {
+		return (visited[v >>> 6] & (1L << v)) != 0;
+	}
+
+	/**
+	 * Forgets every visited vertex so the engine can search again.
+	 */
+	public void reset() {
+		Arrays.fill(visited, 0);
+		Arrays.fill(onStack, 0);
+		stopped = false;
+	}
+
+	/**
+	 * Ends the search in progress. Meant to be called from a Visitor, for
+	 * instance as soon as a cycle has been found. The vertices still on the
+	 * path get no postVisit().
+	 */
+	public void stop() { stopped = true; }
+
+	/**
+	 * Returns true if stop() ended the last search.
+	 * @return boolean
+	 */
+	public boolean isStopped() { return stopped; }
+
+	/**
+	 * Searches every vertex reachable from start that has not already been
+	 * visited. Vertices visited by earlier searches since the last reset()
+	 * are not visited again.
+	 * @param start int vertex
+	 * @param visitor Visitor
+	 */
+	public void search(int start, Visitor visitor) {
+		if (stopped || isVisited(start)) {
+			return;
+		}
+		int top = 0;
+		push(top, start, -1, visitor);
+
+		while (top >= 0 && !stopped) {
+			int u = stack[top];
+			if (nextEdge[top] == graph.edgesEnd(u)) {
+				onStack[u >>> 6] &= ~(1L << u);
+				int parent = top > 0 ? stack[top - 1] : -1;
+				top--;
+				visitor.postVisit(u, parent);
+				continue;
+			}
+			int v = graph.target(nextEdge[top]++);
+			if (!isVisited(v)) {
+				top++;
+				push(top, v, u, visitor);
+			}
+			else if (undirected && v == skipParent[top]) {
+				skipParent[top] = -1;
+			}
+			else if ((onStack[v >>> 6] & (1L << v)) != 0) {
+				visitor.backEdge(u, v);
+			}
+			else if (!undirected) {
+				visitor.crossEdge(u, v);
+			}
+		}
+	}
+
+	/**
+	 * Searches from every vertex not yet visited, in order of vertex
+	 * number, so that every vertex of the graph is visited once.
+	 * @param visitor Visitor
+	 */
+	public void searchAll(Visitor visitor) {
+		for (int s = 0; s < graph.vertexCount() && !stopped; s++) {
+			search(s, visitor);
+		}
+	}
+
+	private void push(int top, int v, int parent, Visitor visitor) {
+		visited[v >>> 6] |= 1L << v;
+		onStack[v >>> 6] |= 1L << v;
+		stack[top] = v;
+		nextEdge[top] = graph.edgesBegin(v);
+		skipParent[top] = parent;
+		visitor.preVisit(v, parent);
+	}
+
+}
@@ -0,0 +1,157 @@
+package practice.datastructures;
+
+import java.util.Arrays;
+
+
+/**
+ * A disjoint-set (union-find) structure over vertices 0..n-1, kept in
+ * primitive arrays: <code>parent[v]</code> links each vertex towards the
+ * root of its set and <code>rank[root]</code> bounds the height of the
+ * root's tree. Finds compress the path they walk, and unions hang the
+ * lower ranked root under the higher, so every operation takes O(&alpha;(n))
+ * amortized time.
+ * <p>
+ * Used for streaming edge ingest: addUndirectedEdge() reports whether each
+ * new edge closes a cycle, and the live vertex, edge and component counts
+ * answer "is this graph still a tree?" in O(1), instead of rerunning
+ * GraphPractice.isCyclic() over the whole adjacency list.
+ *
+ * @author sarablinn
+ *
+ */
+public class DisjointSet {
+
+	private int[] parent;
+	private byte[] rank;
+	private int numVertices = 0;
+	private int numComponents = 0;
+	private long numEdges = 0;
+	private long numCycleEdges = 0;
+
+	public DisjointSet() { this(0); }
+
+	/**
+	 * Creates a structure holding the given number of vertices, each in
+	 * its own component.
+	 * @param vertices int
+	 */
+	public DisjointSet(int vertices) {
+		parent = new int[Math.max(16, vertices)];
+		rank = new byte[parent.length];
+		while (numVertices < vertices) {
+			addNode();
+		}
+	}
+
+	/**
+	 * Adds a new vertex with no edges, in a component of its own.
+	 * @return int the new vertex
+	 */
+	public int addNode() {
+		if (numVertices == parent.length) {
+			parent = Arrays.copyOf(parent, parent.length * 2);
+			rank = Arrays.copyOf(rank, parent.length);
+		}
+		parent[numVertices] = numVertices;
+		numComponents++;
+		return numVertices++;
+	}
+
+	/**
+	 * Returns the root of the set containing v, pointing every vertex on
+	 * the way directly at that root.
+	 * @param v vertex
+	 * @return int root vertex
+	 */
+	public int find(int v) {
+		int root = v;
+		while (parent[root] != root) {
+			root = parent[root];
+		}
+		while (parent[v] != root) {
+			int next = parent[v];
+			parent[v] = root;
+			v = next;
+		}
+		return root;
+	}
+
+	/**
+	 * Returns true if u and v are in the same component.
+	 * @param u vertex
+	 * @param v vertex
+	 * @return boolean
+	 */
+	public boolean connected(int u, int v) {
+		return find(u) == find(v);
+	}
+
+	/**
+	 * Adds an undirected edge between u and v, first adding any vertices
+	 * up to max(u, v) that do not exist yet, just as
+	 * GraphPractice.addUndirectedEdge() does. Returns true if u and v were
+	 * already connected, meaning the new edge closes a cycle.
+	 * @param u vertex
+	 * @param v vertex
+	 * @return boolean
+	 */
+	public boolean addUndirectedEdge(int u, int v) {
+		while (numVertices <= u || numVertices <= v) {
+			addNode();
+		}
+		numEdges++;
+		int ru = find(u);
+		int rv = find(v);
+		if (ru == rv) {
+			numCycleEdges++;
+			return true;
+		}
+		if (rank[ru] < rank[rv]) {
+			parent[ru] = rv;
+		}
+		else if (rank[ru] > rank[rv]) {
+			parent[rv] = ru;
+		}
+		else {
+			parent[rv] = ru;
+			rank[ru]++;
+		}
+		numComponents--;
+		return false;
+	}
+
+	/**
+	 * Returns the number of vertices.
+	 * @return int
+	 */
+	public int vertexCount() { return numVertices; }
+
+	/**
+	 * Returns the number of edges added, including those that closed
+	 * cycles.
+	 * @return long
+	 */
+	public long edgeCount() { return numEdges; }
+
+	/**
+	 * Returns the number of connected components.
+	 * @return int
+	 */
+	public int componentCount() { return numComponents; }
+
+	/**
+	 * Returns true if no edge added so far has closed a cycle.
+	 * @return boolean
+	 */
+	public boolean isAcyclic() { return numCycleEdges == 0; }
+
+	/**
+	 * Returns true if the graph is a tree: connected, with exactly N - 1
+	 * edges where N is the number of vertices. Runs in O(1).
+	 * @return boolean
+	 */
+	public boolean isTree() {
+		return numComponents == 1 && numEdges == numVertices - 1;
+	}
+
+}
@@ -0,0 +1,331 @@
+package practice.datastructures;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+
+/**
+ * Reads a text edge list into a CSRGraph across a ForkJoinPool. Every line
+ * of the file is an edge "u v" or a weighted edge "u v w", with the values
+ * separated by spaces or tabs. Vertices are non-negative ints; weights may
+ * be negative. Blank lines and lines starting with '#' or '%' are skipped.
+ * Either every edge has a weight or none does.
+ * <p>
+ * The file is split into byte ranges that start just after a newline, and
+ * each range is memory mapped and parsed by its own task straight from the
+ * mapped bytes, without making a String per line or token. The edges are
+ * then laid out in two more parallel passes: one counts every vertex's
+ * degree, and one scatters each edge into its vertex's row. Because the
+ * rows are filled concurrently, each row is finally sorted by target, so
+ * the result does not depend on thread timing.
+ * <p>
+ * Repeated edges are kept, as GraphPractice.addEdge() would keep them.
+ *
+ * @author sarablinn
+ *
+ */
+public class EdgeListParser {
+
+	private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+	private static final int MAX_CHUNK = 1 << 26;
+	private static final int MIN_CHUNK = 1 << 16;
+
+	/**
+	 * Parses the edge list in the given file on the common ForkJoinPool.
+	 * @param path Path
+	 * @param undirected boolean true to add every edge in both directions
+	 * @return CSRGraph
+	 * @throws IOException if the file cannot be read or a line is malformed
+	 */
+	public static CSRGraph parse(Path path, boolean undirected) throws IOException {
+		return parse(path, undirected, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Parses the edge list in the given file on the given pool.
+	 * @param path Path
+	 * @param undirected boolean true to add every edge in both directions
+	 * (a self loop is added once)
+	 * @param pool ForkJoinPool
+	 * @return CSRGraph
+	 * @throws IOException if the file cannot be read or a line is malformed
+	 */
+	public static CSRGraph parse(Path path, boolean undirected, ForkJoinPool pool)
+			throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long[] bounds = split(channel, pool);
+			Chunk[] chunks = new Chunk[bounds.length - 1];
+			try {
+				ParallelLoops.sum(pool, 0, chunks.length, 1, (lo, hi) -> {
+					for (int i = lo; i < hi; i++) {
+						try {
+							chunks[i] = Chunk.parse(channel, bounds[i], bounds[i + 1]);
+						}
+						catch (IOException e) {
+							throw new UncheckedIOException(e);
+						}
+					}
+					return 0;
+				});
+			}
+			catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+			return layOut(path, chunks, undirected, pool);
+		}
+	}
+
+	/**
+	 * Picks chunk boundaries: each one is moved forward to just past the
+	 * next newline, so that no line is split between two chunks.
+	 */
+	private static long[] split(FileChannel channel, ForkJoinPool pool) throws IOException {
+		long size = channel.size();
+		long chunk = Math.max(MIN_CHUNK, Math.min(MAX_CHUNK, size / (pool.getParallelism() * 4L)));
+		int count = (int) Math.max(1, (size + chunk - 1) / chunk);
+		long[] bounds = new long[count + 1];
+		ByteBuffer window = ByteBuffer.allocate(4096);
+		for (int i = 1; i < count; i++) {
+			long position = Math.max(i * chunk, bounds[i - 1]);
+			bounds[i] = size;
+			search:
+			while (position < size) {
+				window.clear();
+				int read = channel.read(window, position);
+				if (read <= 0) {
+					break;
+				}
+				for (int j = 0; j < read; j++) {
+					if (window.get(j) == '\n') {
+						bounds[i] = position + j + 1;
+						break search;
+					}
+				}
+				position += read;
+			}
+		}
+		bounds[count] = size;
+		return bounds;
+	}
+
+	/**
+	 * Counts degrees, scatters the edges of every chunk into their rows,
+	 * and sorts each row.
+	 */
+	private static CSRGraph layOut(Path path, Chunk[] chunks, boolean undirected,
+			ForkJoinPool pool) throws IOException {
+		int maxVertex = -1;
+		boolean weighted = false;
+		boolean unweighted = false;
+		for (Chunk chunk : chunks) {
+			maxVertex = Math.max(maxVertex, chunk.maxVertex);
+			weighted |= chunk.weighted;
+			unweighted |= chunk.unweighted;
+		}
+		if (weighted && unweighted) {
+			throw new IOException(path + " mixes weighted and unweighted edges.");
+		}
+		int numVertices = maxVertex + 1;
+		int[] offsets = new int[numVertices + 1];
+		long numEdges = ParallelLoops.sum(pool, 0, chunks.length, 1, (lo, hi) -> {
+			long edges = 0;
+			for (int i = lo; i < hi; i++) {
+				Chunk chunk = chunks[i];
+				for (int e = 0; e < chunk.size; e++) {
+					int u = chunk.src[e], v = chunk.dst[e];
+					INTS.getAndAdd(offsets, u + 1, 1);
+					edges++;
+					if (undirected && u != v) {
+						INTS.getAndAdd(offsets, v + 1, 1);
+						edges++;
+					}
+				}
+			}
+			return edges;
+		});
+		if (numEdges > Integer.MAX_VALUE - 8) {
+			throw new IOException(path + " has too many edges for a CSRGraph.");
+		}
+		for (int u = 0; u < numVertices; u++) {
+			offsets[u + 1] += offsets[u];
+		}
+
+		int[] cursor = Arrays.copyOf(offsets, numVertices);
+		int[] targets = new int[(int) numEdges];
+		int[] weights = weighted ? new int[(int) numEdges] : null;
+		ParallelLoops.sum(pool, 0, chunks.length, 1, (lo, hi) -> {
+			for (int i = lo; i < hi; i++) {
+				Chunk chunk = chunks[i];
+				for (int e = 0; e < chunk.size; e++) {
+					int u = chunk.src[e], v = chunk.dst[e];
+					int slot = (int) INTS.getAndAdd(cursor, u, 1);
+					targets[slot] = v;
+					if (weights != null) {
+						weights[slot] = chunk.weight[e];
+					}
+					if (undirected && u != v) {
+						slot = (int) INTS.getAndAdd(cursor, v, 1);
+						targets[slot] = u;
+						if (weights != null) {
+							weights[slot] = chunk.weight[e];
+						}
+					}
+				}
+				chunks[i] = null;
+			}
+			return 0;
+		});
+
+		int grain = ParallelLoops.grain(pool, numVertices, 1024);
+		ParallelLoops.sum(pool, 0, numVertices, grain, (lo, hi) -> {
+			long[] scratch = null;
+			for (int u = lo; u < hi; u++) {
+				int begin = offsets[u], end = offsets[u + 1];
+				if (weights == null) {
+					Arrays.sort(targets, begin, end);
+					continue;
+				}
+				// sort target and weight together, packed into one long; the
+				// sign bit of the weight is flipped so that it sorts signed
+				if (scratch == null || scratch.length < end - begin) {
+					scratch = new long[Math.max(16, end - begin)];
+				}
+				for (int e = begin; e < end; e++) {
+					scratch[e - begin] = ((long) targets[e] << 32) | ((weights[e] ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+				}
+				Arrays.sort(scratch, 0, end - begin);
+				for (int e = begin; e < end; e++) {
+					targets[e] = (int) (scratch[e - begin] >>> 32);
+					weights[e] = (int) scratch[e - begin] ^ Integer.MIN_VALUE;
+				}
+			}
+			return 0;
+		});
+		return new CSRGraph(offsets, targets, weights);
+	}
+
+	//———————————————————————————————————————————————————————————
+
+	/**
+	 * The edges parsed from one byte range of the file.
+	 */
+	private static class Chunk {
+		private int[] src = new int[1024];
+		private int[] dst = new int[1024];
+		private int[] weight;
+		private int size = 0;
+		private int maxVertex = -1;
+		private boolean weighted = false;
+		private boolean unweighted = false;
+
+		/**
+		 * Parses the complete lines in [start, end) of the file.
+		 */
+		static Chunk parse(FileChannel channel, long start, long end) throws IOException {
+			Chunk chunk = new Chunk();
+			if (start >= end) {
+				return chunk;
+			}
+			MappedByteBuffer bytes = channel.map(MapMode.READ_ONLY, start, end - start);
+			int limit = bytes.limit();
+			long[] fields = new long[3];
+			int i = 0;
+			while (i < limit) {
+				int lineStart = i;
+				int count = 0;
+				byte b = bytes.get(i);
+				if (b == '#' || b == '%') {
+					while (i < limit && bytes.get(i) != '\n') {
+						i++;
+					}
+					i++;
+					continue;
+				}
+				while (i < limit) {
+					b = bytes.get(i);
+					if (b == '\n') {
+						i++;
+						break;
+					}
+					if (b == ' ' || b == '\t' || b == '\r') {
+						i++;
+						continue;
+					}
+					boolean negative = b == '-';
+					if (negative) {
+						i++;
+					}
+					long value = 0;
+					int digits = 0;
+					while (i < limit && (b = bytes.get(i)) >= '0' && b <= '9') {
+						value = value * 10 + (b - '0');
+						if (value > Integer.MAX_VALUE + 1L) {
+							throw malformed(start + lineStart, "value out of int range");
+						}
+						digits++;
+						i++;
+					}
+					if (digits == 0 || count == 3) {
+						throw malformed(start + lineStart, "expected \"u v\" or \"u v w\"");
+					}
+					fields[count++] = negative ? -value : value;
+				}
+				if (count == 0) {
+					continue;
+				}
+				if (count == 1) {
+					throw malformed(start + lineStart, "expected \"u v\" or \"u v w\"");
+				}
+				// offsets needs vertexCount + 1 entries, so the largest id is MAX - 2
+				if (fields[0] < 0 || fields[1] < 0
+						|| fields[0] >= Integer.MAX_VALUE - 1 || fields[1] >= Integer.MAX_VALUE - 1) {
+					throw malformed(start + lineStart, "vertex out of range");
+				}
+				if (count == 3 && fields[2] > Integer.MAX_VALUE) {
+					throw malformed(start + lineStart, "value out of int range");
+				}
+				chunk.add((int) fields[0], (int) fields[1], count == 3 ? (int) fields[2] : 0, count == 3);
+			}
+			return chunk;
+		}
+
+		private void add(int u, int v, int w, boolean hasWeight) {
+			if (size == src.length) {
+				src = Arrays.copyOf(src, size * 2);
+				dst = Arrays.copyOf(dst, size * 2);
+				if (weight != null) {
+					weight = Arrays.copyOf(weight, size * 2);
+				}
+			}
+			if (hasWeight) {
+				if (weight == null) {
+					weight = new int[src.length];
+				}
+				weight[size] = w;
+				weighted = true;
+			}
+			else {
+				unweighted = true;
+			}
+			src[size] = u;
+			dst[size] = v;
+			size++;
+			maxVertex = Math.max(maxVertex, Math.max(u, v));
+		}
+
+		private static IOException malformed(long position, String reason) {
+			return new IOException("Malformed edge at byte " + position + ": " + reason + ".");
+		}
+	}
+
+}
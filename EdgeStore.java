@@ -0,0 +1,161 @@
+package practice.datastructures;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+
+import practice.datastructures.TreeGraph.Edge;
+import practice.datastructures.TreeGraph.Vertex;
+import practice.weightedgraph.EdgeArrays;
+
+
+/**
+ * The edges of a TreeGraph in parallel int arrays, in the EdgeArrays layout
+ * shared with the weighted graph project's EdgeStore. Vertex i is the
+ * vertex with TreeGraph.getVIndex() i. Each tree edge is stored once in
+ * each direction, as addEdge() adds it.
+ * <p>
+ * Where the tree's map holds a LinkedList node and an Edge object for
+ * every edge, the store holds 12 bytes. view(e) returns an EdgeView, a
+ * TreeGraph.Edge that reads the arrays and can be moved from edge to edge,
+ * for code that expects Edge objects; toEdge(e) returns an ordinary Edge.
+ * Relabeling the tree with relabelBreadthFirst() before building the store
+ * puts each vertex's children next to each other in the arrays.
+ * <p>
+ * Changes made to the TreeGraph after the store was built are not seen by
+ * it.
+ *
+ * @author sarablinn
+ *
+ */
+public class EdgeStore extends EdgeArrays<Vertex> {
+
+	private final Map<String, Integer> indexByName;
+
+	/**
+	 * Copies the vertices and edges of the given graph.
+	 * @param graph TreeGraph
+	 */
+	public EdgeStore(TreeGraph graph) {
+		this(graph.getTree());
+	}
+
+	// the map iterates in getId() order
+	private EdgeStore(Map<Vertex, LinkedList<Edge>> adjacency) {
+		super(adjacency.keySet().toArray(new Vertex[0]), offsets(adjacency),
+				targets(adjacency), weights(adjacency));
+		indexByName = new HashMap<>(adjacency.size() * 2);
+		for (int i = 0; i < vertexCount(); i++) {
+			indexByName.put(vertex(i).getName(), i);
+		}
+	}
+
+	private static int[] offsets(Map<Vertex, LinkedList<Edge>> adjacency) {
+		int[] offsets = new int[adjacency.size() + 1];
+		int i = 0;
+		for (LinkedList<Edge> edges : adjacency.values()) {
+			offsets[i + 1] = offsets[i] + edges.size();
+			i++;
+		}
+		return offsets;
+	}
+
+	private static int[] targets(Map<Vertex, LinkedList<Edge>> adjacency) {
+		int[] dst = new int[edgeCount(adjacency)];
+		int e = 0;
+		for (LinkedList<Edge> edges : adjacency.values()) {
+			for (Edge edge : edges) {
+				dst[e++] = edge.getDest().getId();
+			}
+		}
+		return dst;
+	}
+
+	private static int[] weights(Map<Vertex, LinkedList<Edge>> adjacency) {
+		int[] weight = new int[edgeCount(adjacency)];
+		int e = 0;
+		for (LinkedList<Edge> edges : adjacency.values()) {
+			for (Edge edge : edges) {
+				weight[e++] = edge.getWeight();
+			}
+		}
+		return weight;
+	}
+
+	private static int edgeCount(Map<Vertex, LinkedList<Edge>> adjacency) {
+		int count = 0;
+		for (LinkedList<Edge> edges : adjacency.values()) {
+			count += edges.size();
+		}
+		return count;
+	}
+
+	//———————————————————————————————————————————————————————————
+
+	@Override
+	public int indexOf(String name) {
+		Integer index = indexByName.get(name);
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * Returns a new EdgeView of edge e.
+	 * @param e int
+	 * @return EdgeView
+	 */
+	public EdgeView view(int e) {
+		return new EdgeView(e);
+	}
+
+	/**
+	 * Returns a new, ordinary Edge with the same ends and weight as edge e.
+	 * @param e int
+	 * @return Edge
+	 */
+	public Edge toEdge(int e) {
+		return new Edge(vertex(source(e)), vertex(target(e)), weight(e));
+	}
+
+	//———————————————————————————————————————————————————————————
+
+	/**
+	 * An Edge that reads its ends and weight from the store. A view is
+	 * positioned at one edge at a time; moveTo() points it at another, so
+	 * one view can walk every edge without allocating. Not safe to share
+	 * between threads while it is being moved.
+	 */
+	public class EdgeView extends Edge {
+		private int e;
+
+		private EdgeView(int e) {
+			super(null, null, 0);
+			this.e = e;
+		}
+
+		/**
+		 * Points the view at edge e and returns it.
+		 * @param e int
+		 * @return EdgeView
+		 */
+		public EdgeView moveTo(int e) {
+			this.e = e;
+			return this;
+		}
+
+		/**
+		 * Returns the index of the edge the view is positioned at.
+		 * @return int
+		 */
+		public int index() { return e; }
+
+		@Override
+		public int getWeight() { return weight(e); }
+
+		@Override
+		public Vertex getSource() { return vertex(source(e)); }
+
+		@Override
+		public Vertex getDest() { return vertex(target(e)); }
+	}
+
+}
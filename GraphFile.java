@@ -0,0 +1,206 @@
+package practice.datastructures;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * Reads and writes CSRGraphs in a binary file format that can be memory
+ * mapped and traversed in place. All values are little-endian 32-bit ints
+ * unless noted:
+ * <pre>
+ *  offset  size         field
+ *  0       4            magic "CSRG" (0x47525343)
+ *  4       4            format version (1)
+ *  8       4            flags: bit 0 set if a weights array follows
+ *  12      4            reserved (0)
+ *  16      8            vertex count n (long)
+ *  24      8            edge count m (long)
+ *  32      4 * (n + 1)  offsets
+ *  ...     4 * m        targets
+ *  ...     4 * m        weights (if flag bit 0 is set)
+ * </pre>
+ * load() only reads the 32-byte header. The three arrays are mapped with
+ * FileChannel.map(), and the returned CSRGraph reads them straight from the
+ * mapped pages, so loading costs the same for any number of edges, and the
+ * operating system pages edges in as traversals touch them.
+ *
+ * @author sarablinn
+ *
+ */
+public class GraphFile {
+
+	static final int MAGIC = 0x47525343;
+	static final int VERSION = 1;
+	static final int FLAG_WEIGHTS = 1;
+	static final int HEADER_BYTES = 32;
+
+	/**
+	 * Writes the graph, with its weights if it has any, to the given file,
+	 * replacing the file if it exists. Works for any CSRGraph, including
+	 * one loaded from another file.
+	 * @param graph CSRGraph
+	 * @param path Path
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void write(CSRGraph graph, Path path) throws IOException {
+		int numVertices = graph.vertexCount();
+		int numEdges = graph.edgeCount();
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+			buffer.putInt(MAGIC).putInt(VERSION)
+					.putInt(graph.hasWeights() ? FLAG_WEIGHTS : 0).putInt(0)
+					.putLong(numVertices).putLong(numEdges);
+			for (int u = 0; u < numVertices; u++) {
+				buffer = putInt(channel, buffer, graph.edgesBegin(u));
+			}
+			buffer = putInt(channel, buffer, numEdges);
+			for (int e = 0; e < numEdges; e++) {
+				buffer = putInt(channel, buffer, graph.target(e));
+			}
+			if (graph.hasWeights()) {
+				for (int e = 0; e < numEdges; e++) {
+					buffer = putInt(channel, buffer, graph.weight(e));
+				}
+			}
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+	}
+
+	private static ByteBuffer putInt(FileChannel channel, ByteBuffer buffer, int value)
+			throws IOException {
+		if (buffer.remaining() < 4) {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+		return buffer.putInt(value);
+	}
+
+	/**
+	 * Maps a file written by write() and returns a read-only CSRGraph over
+	 * it. The mapping stays valid after this method returns, and lasts for
+	 * as long as the graph is reachable.
+	 * @param path Path
+	 * @return CSRGraph
+	 * @throws IOException if the file cannot be read or is not a graph file
+	 */
+	public static CSRGraph load(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			while (header.hasRemaining()) {
+				if (channel.read(header, header.position()) < 0) {
+					throw new IOException(path + " is too short to be a graph file.");
+				}
+			}
+			header.flip();
+			if (header.getInt() != MAGIC) {
+				throw new IOException(path + " is not a graph file.");
+			}
+			int version = header.getInt();
+			if (version != VERSION) {
+				throw new IOException(path + " has unsupported format version " + version + ".");
+			}
+			boolean weighted = (header.getInt() & FLAG_WEIGHTS) != 0;
+			header.getInt();
+			long numVertices = header.getLong();
+			long numEdges = header.getLong();
+			if (numVertices < 0 || numVertices >= Integer.MAX_VALUE
+					|| numEdges < 0 || numEdges > Integer.MAX_VALUE) {
+				throw new IOException(path + " is too large for a CSRGraph.");
+			}
+			long offsetsAt = HEADER_BYTES;
+			long targetsAt = offsetsAt + 4 * (numVertices + 1);
+			long weightsAt = targetsAt + 4 * numEdges;
+			long end = weightsAt + (weighted ? 4 * numEdges : 0);
+			if (channel.size() < end) {
+				throw new IOException(path + " is truncated.");
+			}
+			MappedInts offsets = new MappedInts(channel, offsetsAt, numVertices + 1);
+			MappedInts targets = new MappedInts(channel, targetsAt, numEdges);
+			MappedInts weights = weighted ? new MappedInts(channel, weightsAt, numEdges) : null;
+			return new MappedGraph((int) numVertices, (int) numEdges, offsets, targets, weights);
+		}
+	}
+
+	//———————————————————————————————————————————————————————————
+
+	/**
+	 * An int array kept in a mapped file. A single MappedByteBuffer cannot
+	 * exceed 2 GB, so the array is mapped in segments of 2^28 ints (1 GB).
+	 */
+	static final class MappedInts {
+		private static final int SHIFT = 28;
+		private static final int MASK = (1 << SHIFT) - 1;
+		private final IntBuffer[] segments;
+
+		MappedInts(FileChannel channel, long position, long length) throws IOException {
+			int count = (int) ((length + MASK) >>> SHIFT);
+			segments = new IntBuffer[count];
+			for (int i = 0; i < count; i++) {
+				long ints = Math.min(1L << SHIFT, length - ((long) i << SHIFT));
+				segments[i] = channel.map(MapMode.READ_ONLY, position + ((long) i << (SHIFT + 2)), 4 * ints)
+						.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+			}
+		}
+
+		int get(int index) {
+			return segments[index >>> SHIFT].get(index & MASK);
+		}
+	}
+
+	/**
+	 * A CSRGraph whose offsets, targets and weights are read from mapped
+	 * file pages instead of int arrays.
+	 */
+	static final class MappedGraph extends CSRGraph {
+		private final int numVertices;
+		private final int numEdges;
+		private final MappedInts offsets;
+		private final MappedInts targets;
+		private final MappedInts weights;
+
+		MappedGraph(int numVertices, int numEdges, MappedInts offsets, MappedInts targets,
+				MappedInts weights) {
+			this.numVertices = numVertices;
+			this.numEdges = numEdges;
+			this.offsets = offsets;
+			this.targets = targets;
+			this.weights = weights;
+		}
+
+		@Override
+		public int vertexCount() { return numVertices; }
+
+		@Override
+		public int edgeCount() { return numEdges; }
+
+		@Override
+		public int edgesBegin(int u) { return offsets.get(u); }
+
+		@Override
+		public int edgesEnd(int u) { return offsets.get(u + 1); }
+
+		@Override
+		public int target(int edge) { return targets.get(edge); }
+
+		@Override
+		public boolean hasWeights() { return weights != null; }
+
+		@Override
+		public int weight(int edge) { return weights.get(edge); }
+	}
+
+}
@@ -1,13 +1,15 @@
 package practice.datastructures;
 
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Arrays;
 import java.util.LinkedList;
 
 
 /**
  * Practice creating and modifying Adjacency List representations of directed
  * and undirected graphs using <code>ArrayList</code>.
+ * These methods are not thread-safe; for a graph that writer threads add
+ * to while other threads search it, see <code>ConcurrentGraph</code>.
  * 
  * @author sarablinn
  *
@@ -54,6 +56,84 @@ public class GraphPractice {
 					+ u + " and vertex " + v + ".");	}
 	}
 	
+	/**
+	 * Adds the undirected edges (us[i], vs[i]) in order, with the same
+	 * result as calling addUndirectedEdge() on each pair, but without a
+	 * linear contains() scan per edge or a printed line per repeat. The
+	 * graph is grown once to the largest vertex, and repeats are caught
+	 * with a primitive hash set of the (u, v) pairs in the rows touched.
+	 * @param adj ArrayList<ArrayList<Integer>>
+	 * @param us int array of vertices
+	 * @param vs int array of vertices, as long as us
+	 * @return int number of edges skipped as repeats
+	 */
+	static int addUndirectedEdges(ArrayList<ArrayList<Integer>> adj, int[] us, int[] vs) {
+		if (us.length != vs.length) {
+			throw new IllegalArgumentException("us and vs differ in length: "
+					+ us.length + " and " + vs.length);
+		}
+		int maxVertex = adj.size() - 1;
+		for (int i = 0; i < us.length; i++) {
+			if (us[i] < 0 || vs[i] < 0) {
+				throw new IllegalArgumentException("Negative vertex: (" + us[i] + ", " + vs[i] + ")");
+			}
+			maxVertex = Math.max(maxVertex, Math.max(us[i], vs[i]));
+		}
+		adj.ensureCapacity(maxVertex + 1);
+		while (adj.size() <= maxVertex) {
+			addNode(adj);
+		}
+
+		// the set holds (x, y) for every y in row x, for each row x that a
+		// repeat check looks at; edges added below go in as both halves
+		boolean[] indexed = new boolean[maxVertex + 1];
+		int existing = 0;
+		for (int u : us) {
+			if (!indexed[u]) {
+				indexed[u] = true;
+				existing += adj.get(u).size();
+			}
+		}
+		LongHashSet pairs = new LongHashSet(existing + 2 * us.length);
+		Arrays.fill(indexed, false);
+		for (int u : us) {
+			if (!indexed[u]) {
+				indexed[u] = true;
+				for (int v : adj.get(u)) {
+					pairs.add(((long) u << 32) | v);
+				}
+			}
+		}
+
+		boolean[] accepted = new boolean[us.length];
+		int[] added = new int[maxVertex + 1];
+		int repeats = 0;
+		for (int i = 0; i < us.length; i++) {
+			int u = us[i], v = vs[i];
+			if (pairs.contains(((long) u << 32) | v)) {
+				repeats++;
+				continue;
+			}
+			pairs.add(((long) u << 32) | v);
+			pairs.add(((long) v << 32) | u);
+			accepted[i] = true;
+			added[u]++;
+			added[v]++;
+		}
+		for (int u = 0; u <= maxVertex; u++) {
+			if (added[u] > 0) {
+				adj.get(u).ensureCapacity(adj.get(u).size() + added[u]);
+			}
+		}
+		for (int i = 0; i < us.length; i++) {
+			if (accepted[i]) {
+				adj.get(us[i]).add(vs[i]);
+				adj.get(vs[i]).add(us[i]);
+			}
+		}
+		return repeats;
+	}
+
 	/**
 	 * Adds a new node/vertex with no edges.
 	 * @param adj
@@ -94,6 +174,8 @@ public class GraphPractice {
 	 * selected node/vertex then the nodes adjacent nodes, followed by the adjacent 
 	 * nodes children. Parameter "start" is the node index that the search will begin 
 	 * at. Prints out the elements in the order they were traversed.
+	 * For large graphs, see ParallelBFS, which returns distance and parent 
+	 * arrays instead of printing.
 	 * @param adj ArrayList<ArrayList<Integer>> 
 	 * @param start int
 	 */
@@ -101,8 +183,8 @@ public class GraphPractice {
 		int numVertices = adj.size();
 		boolean visited[] = new boolean[numVertices]; 
 		LinkedList<Integer> queue = new LinkedList<>();
-		String order = "";
-		String queueOrder = "";
+		StringBuilder order = new StringBuilder();
+		StringBuilder queueOrder = new StringBuilder();
 
 		visited[start] = true;
 		queue.add(start);
@@ -110,13 +192,13 @@ public class GraphPractice {
 
 		while(!queue.isEmpty()) {
 			start = queue.poll(); 
-			order += start + " "; 
+			order.append(start).append(" "); 
 			ArrayList<Integer> node = adj.get(start);
 			for (int adjNode : node) {
 				if (!visited[adjNode]) {
 					visited[adjNode] = true;
 					queue.add(adjNode);
-					queueOrder += " > " + queue.toString();
+					queueOrder.append(" > ").append(queue);
 				} 
 			}
 		}
@@ -125,96 +207,41 @@ public class GraphPractice {
 	}
 	
 	/**
-	 * Depth First Search is a recursive traversal algorithm in which all the unvisited
+	 * Depth First Search is a traversal algorithm in which all the unvisited
 	 * nodes in the current path will be traversed, then new path will be selected. 
-	 * This particular method is the helper method, or the face, of the DFS() method 
-	 * which performs the actual recursion. This method aids in simplicity of parameters.
-	 * @see <b>DFS()</b>
+	 * This particular method is the face of the search: it prints the order 
+	 * in which the iterative DepthFirstSearch engine visits the vertices. The 
+	 * engine keeps the current path on an explicit stack, so long paths 
+	 * cannot overflow the call stack.
+	 * @see DepthFirstSearch
 	 * @param adj ArrayList
 	 * @param start int
 	 */
 	static void depthFirstSearch(ArrayList<ArrayList<Integer>> adj, int start) {
-		boolean visited[] = new boolean[adj.size()];
 		System.out.print("\nDFS result:");
-		DFS(adj, visited, start);
-		System.out.println();
-	}
-	/**
-	 * Performs recursive Depth First Traversal. 
-	 * @see <b>depthFirstSearch()</b>
-	 * @param adj ArrayList
-	 * @param visited boolean Array
-	 * @param start int
-	 */
-	static void DFS(ArrayList<ArrayList<Integer>> adj, 
-			boolean visited[], int start) {
-		visited[start] = true;
-		System.out.print(" " + start);
-		ArrayList<Integer> node = adj.get(start);
-		for (int adjNode : node) {
-			if (!visited[adjNode]) { 
-				DFS(adj, visited, adjNode);
-			}
+		for (int v : depthFirstSearch(CSRGraph.fromAdjacencyList(adj), start)) {
+			System.out.print(" " + v);
 		}
+		System.out.println();
 	}
 	
-	/**
-	 * Recursive DFS helper method of isCyclic().
-	 * @param adj Adjacency List
-	 * @param visited boolean Array
-	 * @param v vertex
-	 * @param parent vertex
-	 * @return boolean
-	 * @see isCyclic()
-	 */
-	static boolean isCyclicUtil(ArrayList<ArrayList<Integer>> adj, 
-			boolean visited[], int v, int parent) { 
-		// Mark the current node as visited 
-		visited[v] = true;  
-		// Recur for all the vertices adjacent to this vertex 
-		Iterator<Integer> it = adj.get(v).iterator(); 
-		while (it.hasNext()) { 
-			Integer i = it.next(); 
-			// If an adjacent is not visited, then recur for that adjacent 
-			if (!visited[i]) { 
-				if (isCyclicUtil(adj, visited, i, v)) {
-					return true;
-				}
-			} 
-			// If an adjacent is visited and not parent of current 
-			// vertex, then there is a cycle. 
-			else if (i != parent) {
-				return true; 
-			}
-		} 
-		return false; 
-	} 
-	
 	/**
 	 * In graph theory, a tree is an undirected graph in which any two vertices 
 	 * are connected by exactly one path, or equivalently a connected acyclic 
 	 * undirected graph with N - 1 edges where N is the number of vertices.
-	 * isCyclic() uses Depth First Search in its helper method isCyclicUtil()
-	 * to determine if the supplied graph (adjacency list) has a loop/cycle, 
-	 * thereby determining that the graph is not a tree.
+	 * isCyclic() determines if the supplied graph (adjacency list) has a 
+	 * loop/cycle, thereby determining that the graph is not a tree.
 	 * isCyclic() assumes that addUndirectedEdge() was used to create the 
 	 * graph, meaning that each edge can be traversed in either direction.
+	 * The search is done by the iterative DepthFirstSearch engine (see 
+	 * isCyclic(CSRGraph)), so deep graphs cannot overflow the call stack.
+	 * To check after every new edge, use DisjointSet instead.
 	 * @param adj
 	 * @return boolean
-	 * @see isCyclicUtil()
+	 * @see DepthFirstSearch
 	 */
 	static boolean isCyclic(ArrayList<ArrayList<Integer>> adj) { 
-		int numVertices = adj.size();
-		boolean visited[] = new boolean[numVertices]; 
-		// Call recursive helper method to detect cycle in different DFS trees 
-		for (int u = 0; u < numVertices; u++) {
-			if (!visited[u]) {// Don't recur for u if already visited 
-				if (isCyclicUtil(adj, visited, u, -1)) {
-					return true; 
-				}
-			}
-		}
-		return false; 
+		return isCyclic(CSRGraph.fromAdjacencyList(adj));
 	}
 	
 	/**
@@ -253,8 +280,175 @@ public class GraphPractice {
 			}
 		} return count;
 	}
-	
-	
+
+	/**
+	 * Labels every vertex with the number of its connected component.
+	 * Unlike countEdges(), which only sees the component of vertex 0, every
+	 * vertex of the graph gets a label. Edges added with addEdge() are
+	 * followed in both directions, so a directed graph is split into its
+	 * weakly connected components. The work is spread across all cores by
+	 * ConnectedComponents, which also reports the size of each component.
+	 * @param adj ArrayList<ArrayList<Integer>>
+	 * @return int array of labels, numbered from 0 in order of each
+	 * component's lowest vertex
+	 */
+	static int[] connectedComponents(ArrayList<ArrayList<Integer>> adj) {
+		return ConnectedComponents.find(CSRGraph.fromAdjacencyList(adj), false).getLabels();
+	}
+
+	/**
+	 * Labels every vertex of a directed graph, built with addEdge(), with
+	 * the number of its strongly connected component: two vertices share a
+	 * label if each can reach the other. Labels are in reverse topological
+	 * order, so every edge between components goes to a lower label.
+	 * @param adj ArrayList<ArrayList<Integer>>
+	 * @return int array of labels
+	 * @see StronglyConnectedComponents
+	 */
+	static int[] stronglyConnectedComponents(ArrayList<ArrayList<Integer>> adj) {
+		return StronglyConnectedComponents.find(CSRGraph.fromAdjacencyList(adj)).getLabels();
+	}
+
+	/**
+	 * Orders the vertices of a directed graph, built with addEdge(), so that
+	 * every edge (u, v) has u before v. Unlike isCyclic(), which only handles
+	 * undirected graphs, this also shows whether a directed graph has a
+	 * cycle: it then has no such order, and null is returned.
+	 * @param adj ArrayList<ArrayList<Integer>>
+	 * @return int array of every vertex, or null if the graph has a cycle
+	 * @see TopologicalSort
+	 */
+	static int[] topologicalSort(ArrayList<ArrayList<Integer>> adj) {
+		return TopologicalSort.sort(CSRGraph.fromAdjacencyList(adj));
+	}
+
+	//———————————————————————————————————————————————————————————
+	// CSRGraph versions: the same traversals over the primitive
+	// offsets/targets arrays of a CSRGraph, without boxing.
+
+	/**
+	 * Prints out the adjacency lists of each node/vertex in a CSRGraph.
+	 * @param graph CSRGraph
+	 */
+	static void printGraph(CSRGraph graph) {
+		for (int u = 0; u < graph.vertexCount(); u++) {
+			System.out.println("\nAdjacency list of vertex: " + u);
+			for (int e = graph.edgesBegin(u); e < graph.edgesEnd(u); e++) {
+				System.out.print(" -> " + graph.target(e));
+			}
+		}
+	}
+
+	/**
+	 * Breadth First Search over a CSRGraph. Visits vertices in the same
+	 * order as breadthFirstSearch(adj, start) on the equivalent adjacency
+	 * list, but returns that order instead of printing it. The int array
+	 * used as the queue is the traversal order itself.
+	 * @param graph CSRGraph
+	 * @param start int
+	 * @return int array of vertices in the order they were visited
+	 */
+	static int[] breadthFirstSearch(CSRGraph graph, int start) {
+		boolean visited[] = new boolean[graph.vertexCount()];
+		int[] queue = new int[graph.vertexCount()];
+		int head = 0;
+		int tail = 0;
+
+		visited[start] = true;
+		queue[tail++] = start;
+
+		while (head < tail) {
+			int u = queue[head++];
+			for (int e = graph.edgesBegin(u); e < graph.edgesEnd(u); e++) {
+				int v = graph.target(e);
+				if (!visited[v]) {
+					visited[v] = true;
+					queue[tail++] = v;
+				}
+			}
+		}
+		return Arrays.copyOf(queue, tail);
+	}
+
+	/**
+	 * Depth First Search over a CSRGraph with the iterative
+	 * DepthFirstSearch engine. Visits vertices in the same order as
+	 * depthFirstSearch(adj, start), and returns the order instead of
+	 * printing it.
+	 * @param graph CSRGraph
+	 * @param start int
+	 * @return int array of vertices in the order they were visited
+	 */
+	static int[] depthFirstSearch(CSRGraph graph, int start) {
+		int[] order = new int[graph.vertexCount()];
+		int[] count = new int[1];
+		new DepthFirstSearch(graph, false).search(start, new DepthFirstSearch.Visitor() {
+			@Override
+			public void preVisit(int v, int parent) {
+				order[count[0]++] = v;
+			}
+		});
+		return Arrays.copyOf(order, count[0]);
+	}
+
+	/**
+	 * Breadth First Search over a graph relabeled by a VertexOrdering, for
+	 * better cache locality. start and the returned order are in the
+	 * original ids, and the order is the same as breadthFirstSearch()
+	 * of the original graph.
+	 * @param relabeled CSRGraph returned by ordering.apply()
+	 * @param ordering VertexOrdering
+	 * @param start int original id
+	 * @return int array of original ids in the order they were visited
+	 */
+	static int[] breadthFirstSearch(CSRGraph relabeled, VertexOrdering ordering, int start) {
+		return ordering.toOld(breadthFirstSearch(relabeled, ordering.toNew(start)));
+	}
+
+	/**
+	 * Depth First Search over a graph relabeled by a VertexOrdering, for
+	 * better cache locality. start and the returned order are in the
+	 * original ids, and the order is the same as depthFirstSearch() of the
+	 * original graph.
+	 * @param relabeled CSRGraph returned by ordering.apply()
+	 * @param ordering VertexOrdering
+	 * @param start int original id
+	 * @return int array of original ids in the order they were visited
+	 */
+	static int[] depthFirstSearch(CSRGraph relabeled, VertexOrdering ordering, int start) {
+		return ordering.toOld(depthFirstSearch(relabeled, ordering.toNew(start)));
+	}
+
+	/**
+	 * Same check as isCyclic(adj): returns true if the undirected graph has
+	 * a loop/cycle, and therefore is not a tree. Stops the DepthFirstSearch
+	 * engine at the first back edge.
+	 * @param graph CSRGraph built with addUndirectedEdge()
+	 * @return boolean
+	 */
+	static boolean isCyclic(CSRGraph graph) {
+		DepthFirstSearch dfs = new DepthFirstSearch(graph, true);
+		dfs.searchAll(new DepthFirstSearch.Visitor() {
+			@Override
+			public void backEdge(int u, int v) {
+				dfs.stop();
+			}
+		});
+		return dfs.isStopped();
+	}
+
+	/**
+	 * Counts the number of edges in an undirected CSRGraph. Every edge
+	 * added with addUndirectedEdge() is stored once in each direction, so
+	 * this is half the number of stored edges, over all components.
+	 * @param graph CSRGraph built with addUndirectedEdge()
+	 * @return int number of edges
+	 */
+	static int countEdges(CSRGraph graph) {
+		return graph.edgeCount() / 2;
+	}
+
+
 
 	public static void main(String[] args) {
 		
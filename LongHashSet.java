@@ -0,0 +1,97 @@
+package practice.datastructures;
+
+import java.util.Arrays;
+
+
+/**
+ * A set of non-negative longs kept in one open-addressing table with linear
+ * probing, so adding or looking up a key never boxes it. Used to hold
+ * packed (u, v) vertex pairs.
+ *
+ * @author sarablinn
+ *
+ */
+class LongHashSet {
+
+	private static final long EMPTY = -1;
+
+	private long[] table;
+	private int size = 0;
+
+	/**
+	 * Creates a set with room for the given number of keys before it grows.
+	 * @param expected int
+	 */
+	LongHashSet(int expected) {
+		int capacity = Integer.highestOneBit(Math.max(8, expected) * 2 - 1) << 1;
+		table = new long[capacity];
+		Arrays.fill(table, EMPTY);
+	}
+
+	int size() { return size; }
+
+	/**
+	 * Returns true if the set holds the key.
+	 * @param key long, at least 0
+	 * @return boolean
+	 */
+	boolean contains(long key) {
+		int mask = table.length - 1;
+		for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+			if (table[i] == key) {
+				return true;
+			}
+			if (table[i] == EMPTY) {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Adds the key. Returns false if the set already held it.
+	 * @param key long, at least 0
+	 * @return boolean
+	 */
+	boolean add(long key) {
+		if (key < 0) {
+			throw new IllegalArgumentException("Negative key: " + key);
+		}
+		int mask = table.length - 1;
+		int i = slot(key, mask);
+		while (table[i] != EMPTY) {
+			if (table[i] == key) {
+				return false;
+			}
+			i = (i + 1) & mask;
+		}
+		table[i] = key;
+		if (++size * 2 > table.length) {
+			grow();
+		}
+		return true;
+	}
+
+	private void grow() {
+		long[] old = table;
+		table = new long[old.length * 2];
+		Arrays.fill(table, EMPTY);
+		int mask = table.length - 1;
+		for (long key : old) {
+			if (key != EMPTY) {
+				int i = slot(key, mask);
+				while (table[i] != EMPTY) {
+					i = (i + 1) & mask;
+				}
+				table[i] = key;
+			}
+		}
+	}
+
+	private static int slot(long key, int mask) {
+		// spread the bits of both packed halves (Stafford's mix13)
+		key = (key ^ (key >>> 30)) * 0xBF58476D1CE4E5B9L;
+		key = (key ^ (key >>> 27)) * 0x94D049BB133111EBL;
+		return (int) (key ^ (key >>> 31)) & mask;
+	}
+
+}
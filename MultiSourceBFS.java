@@ -0,0 +1,264 @@
+package practice.datastructures;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Breadth First Searches from many sources at once over a CSRGraph, after
+ * Then et al.'s MS-BFS. Every vertex keeps one bit per source in each of
+ * three bitsets:
+ * <ul>
+ * <li><b>seen</b>: the sources whose search has reached the vertex.</li>
+ * <li><b>visit</b>: the sources whose search reached it in the last
+ * level, and so expand from it in this one.</li>
+ * <li><b>next</b>: the sources whose search reaches it in this level.</li>
+ * </ul>
+ * Sources are packed 64 to a long word, and a vertex's words sit next to
+ * each other, so one pass over a frontier vertex's edges advances every
+ * search that is at that vertex: for each neighbor n and word w,
+ * next[n][w] |= visit[v][w] &amp; ~seen[n][w]. Searches that share parts of
+ * the graph share the edge scans, where one breadthFirstSearch() per
+ * source would scan the graph once per source.
+ * <p>
+ * Each level is split across a ForkJoinPool. Frontier vertices are pushed
+ * in parallel, with next words updated by an atomic OR; the vertices
+ * reached are then settled in parallel, each by the one worker that owns
+ * it. The bitsets take 24 bytes per vertex per 64 sources.
+ *
+ * @author sarablinn
+ *
+ */
+public class MultiSourceBFS {
+
+	private static final VarHandle LONG_ARRAY = MethodHandles.arrayElementVarHandle(long[].class);
+	private static final VarHandle INT_ARRAY = MethodHandles.arrayElementVarHandle(int[].class);
+
+	//———————————————————————————————————————————————————————————
+
+	/**
+	 * The distance in edges from every source to every vertex, or -1 if
+	 * the source cannot reach the vertex. Column i of the matrix belongs to
+	 * sources[i], and a vertex's distances from all sources sit next to each
+	 * other, which is the order the search writes them in. The matrix is
+	 * kept in shorts, and only widened to ints if some distance does not
+	 * fit in one.
+	 */
+	public static class Result {
+		private final int[] sources;
+		private final int numVertices;
+		private final short[] compact;
+		private final int[] wide;
+
+		Result(int[] sources, int numVertices, short[] compact, int[] wide) {
+			this.sources = sources;
+			this.numVertices = numVertices;
+			this.compact = compact;
+			this.wide = wide;
+		}
+
+		/**
+		 * Returns the sources, in the order of the matrix columns.
+		 * @return int array
+		 */
+		public int[] getSources() { return sources.clone(); }
+
+		/**
+		 * Returns the number of vertices, the length of a column.
+		 * @return int
+		 */
+		public int vertexCount() { return numVertices; }
+
+		/**
+		 * Returns true if the matrix is held in 2 bytes per entry.
+		 * @return boolean
+		 */
+		public boolean isCompact() { return compact != null; }
+
+		/**
+		 * Returns the distance from sources[i] to vertex v, or -1.
+		 * @param i int column
+		 * @param v int vertex
+		 * @return int
+		 */
+		public int distance(int i, int v) {
+			int index = v * sources.length + i;
+			return compact != null ? compact[index] : wide[index];
+		}
+
+		/**
+		 * Returns a copy of column i: the distance from sources[i] to every
+		 * vertex, or -1.
+		 * @param i int column
+		 * @return int array
+		 */
+		public int[] distances(int i) {
+			int[] column = new int[numVertices];
+			for (int v = 0; v < numVertices; v++) {
+				column[v] = distance(i, v);
+			}
+			return column;
+		}
+	}
+
+	//———————————————————————————————————————————————————————————
+
+	/**
+	 * Runs a search from every source on the common ForkJoinPool.
+	 * @param graph CSRGraph
+	 * @param sources int array of vertices
+	 * @return Result
+	 */
+	public static Result search(CSRGraph graph, int[] sources) {
+		return search(graph, sources, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Runs a search from every source on the given ForkJoinPool. The
+	 * matrix holds sources.length * vertexCount() entries, so it must fit
+	 * in one array.
+	 * @param graph CSRGraph
+	 * @param sources int array of vertices
+	 * @param pool ForkJoinPool
+	 * @return Result
+	 */
+	public static Result search(CSRGraph graph, int[] sources, ForkJoinPool pool) {
+		int numVertices = graph.vertexCount();
+		long cells = (long) sources.length * numVertices;
+		if (cells > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException(sources.length + " sources over "
+					+ numVertices + " vertices do not fit in one matrix");
+		}
+		int numSources = sources.length;
+		int words = (numSources + 63) >>> 6;
+		// bits of vertex v for sources [64 w, 64 w + 64) are at v * words + w
+		long[] seen = new long[numVertices * words];
+		long[] visit = new long[numVertices * words];
+		long[] next = new long[numVertices * words];
+		// reached[v] == level + 1 once v has been added to the next frontier
+		int[] reached = new int[numVertices];
+		short[] compact = new short[(int) cells];
+		Arrays.fill(compact, (short) -1);
+		int[] wide = null;
+
+		int[] frontier = new int[numVertices];
+		int frontierSize = 0;
+		for (int i = 0; i < sources.length; i++) {
+			int s = sources[i];
+			if (s < 0 || s >= numVertices) {
+				throw new IllegalArgumentException("Source " + s + " is not a vertex");
+			}
+			int slot = s * words + (i >>> 6);
+			if (isZero(seen, s, words)) {
+				frontier[frontierSize++] = s;
+			}
+			seen[slot] |= 1L << i;
+			visit[slot] |= 1L << i;
+			compact[s * sources.length + i] = 0;
+		}
+
+		int[] nextFrontier = new int[numVertices];
+		int level = 0;
+		while (frontierSize > 0) {
+			if (level + 1 > Short.MAX_VALUE && wide == null) {
+				wide = new int[compact.length];
+				for (int c = 0; c < compact.length; c++) {
+					wide[c] = compact[c];
+				}
+				compact = null;
+			}
+			int[] current = frontier;
+			int currentSize = frontierSize;
+			int[] reachedNow = nextFrontier;
+			AtomicInteger tail = new AtomicInteger();
+			int stamp = level + 1;
+			int grain = ParallelLoops.grain(pool, currentSize, 64);
+			ParallelLoops.sum(pool, 0, currentSize, grain, (lo, hi) -> {
+				int[] buffer = new int[256];
+				int size = 0;
+				for (int i = lo; i < hi; i++) {
+					int v = current[i];
+					for (int e = graph.edgesBegin(v); e < graph.edgesEnd(v); e++) {
+						int n = graph.target(e);
+						boolean pushed = false;
+						for (int w = 0; w < words; w++) {
+							long bits = visit[v * words + w] & ~seen[n * words + w];
+							if (bits != 0) {
+								// a plain read first skips the atomic OR when the
+								// bits are already there, as is common in dense levels
+								if ((bits & ~next[n * words + w]) != 0) {
+									LONG_ARRAY.getAndBitwiseOr(next, n * words + w, bits);
+								}
+								pushed = true;
+							}
+						}
+						if (pushed && (int) INT_ARRAY.getAndSet(reached, n, stamp) != stamp) {
+							if (size == buffer.length) {
+								System.arraycopy(buffer, 0, reachedNow, tail.getAndAdd(size), size);
+								size = 0;
+							}
+							buffer[size++] = n;
+						}
+					}
+				}
+				System.arraycopy(buffer, 0, reachedNow, tail.getAndAdd(size), size);
+				return 0;
+			});
+
+			// settle the reached vertices; each is written by one worker only
+			int nextSize = tail.get();
+			short[] compactLevel = compact;
+			int[] wideLevel = wide;
+			ParallelLoops.sum(pool, 0, currentSize, grain, (lo, hi) -> {
+				for (int i = lo; i < hi; i++) {
+					Arrays.fill(visit, current[i] * words, current[i] * words + words, 0L);
+				}
+				return 0;
+			});
+			int settleGrain = ParallelLoops.grain(pool, nextSize, 64);
+			ParallelLoops.sum(pool, 0, nextSize, settleGrain, (lo, hi) -> {
+				for (int i = lo; i < hi; i++) {
+					int n = reachedNow[i];
+					for (int w = 0; w < words; w++) {
+						int slot = n * words + w;
+						long bits = next[slot];
+						next[slot] = 0;
+						seen[slot] |= bits;
+						visit[slot] = bits;
+						while (bits != 0) {
+							int source = (w << 6) + Long.numberOfTrailingZeros(bits);
+							int cell = n * numSources + source;
+							if (compactLevel != null) {
+								compactLevel[cell] = (short) stamp;
+							}
+							else {
+								wideLevel[cell] = stamp;
+							}
+							bits &= bits - 1;
+						}
+					}
+				}
+				return 0;
+			});
+			int[] swap = frontier;
+			frontier = nextFrontier;
+			nextFrontier = swap;
+			frontierSize = nextSize;
+			level++;
+		}
+		return new Result(sources.clone(), numVertices, compact, wide);
+	}
+
+	private static boolean isZero(long[] bits, int v, int words) {
+		for (int w = 0; w < words; w++) {
+			if (bits[v * words + w] != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
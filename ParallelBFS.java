@@ -0,0 +1,240 @@
+package practice.datastructures;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * A parallel, direction-optimizing Breadth First Search over a CSRGraph.
+ * The search expands the graph one level at a time, and each level is split
+ * across the workers of a ForkJoinPool. A level is expanded in one of two
+ * ways:
+ * <ul>
+ * <li><b>top-down</b>: every frontier vertex claims its unvisited neighbors.
+ * Cheap while the frontier is small.</li>
+ * <li><b>bottom-up</b>: every unvisited vertex looks for any parent in the
+ * frontier and stops at the first one found. Cheap once the frontier holds
+ * a large part of the graph, since most edges are never examined.</li>
+ * </ul>
+ * The switch between the two follows Beamer et al.: go bottom-up once the
+ * edges leaving the frontier outnumber the unexplored edges / ALPHA, and go
+ * back to top-down once the frontier shrinks below vertexCount / BETA.
+ * <p>
+ * Unlike GraphPractice.breadthFirstSearch(), nothing is printed: the search
+ * returns the distance (in edges) of every vertex from the source and its
+ * parent in the BFS tree. Any vertex may be picked as a parent among those
+ * in the previous level, so parents can differ from run to run; distances
+ * never do.
+ *
+ * @author sarablinn
+ *
+ */
+public class ParallelBFS {
+
+	private static final int ALPHA = 15;
+	private static final int BETA = 18;
+
+	private static final VarHandle INT_ARRAY = MethodHandles.arrayElementVarHandle(int[].class);
+
+	//———————————————————————————————————————————————————————————
+
+	/**
+	 * The distance and parent arrays produced by a search. Vertices the
+	 * source cannot reach have a distance and parent of -1. The source is
+	 * its own parent.
+	 */
+	public static class Result {
+		private final int[] distance;
+		private final int[] parent;
+
+		Result(int[] distance, int[] parent) {
+			this.distance = distance;
+			this.parent = parent;
+		}
+
+		public int[] getDistance() { return distance; }
+
+		public int[] getParent() { return parent; }
+	}
+
+	//———————————————————————————————————————————————————————————
+
+	/**
+	 * Runs the search on the common ForkJoinPool. The transpose needed by
+	 * the bottom-up steps is built first; use the overload that takes a
+	 * transpose to reuse one across searches.
+	 * @param graph CSRGraph
+	 * @param source int vertex
+	 * @return Result
+	 */
+	public static Result search(CSRGraph graph, int source) {
+		return search(graph, graph.transpose(), source, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Runs the search on the common ForkJoinPool.
+	 * @param graph CSRGraph
+	 * @param transpose graph.transpose(), or graph itself if it was built
+	 * only with addUndirectedEdge()
+	 * @param source int vertex
+	 * @return Result
+	 */
+	public static Result search(CSRGraph graph, CSRGraph transpose, int source) {
+		return search(graph, transpose, source, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Runs the search on the given ForkJoinPool.
+	 * @param graph CSRGraph
+	 * @param transpose graph.transpose(), or graph itself if it was built
+	 * only with addUndirectedEdge()
+	 * @param source int vertex
+	 * @param pool ForkJoinPool
+	 * @return Result
+	 */
+	public static Result search(CSRGraph graph, CSRGraph transpose, int source,
+			ForkJoinPool pool) {
+		int numVertices = graph.vertexCount();
+		int[] distance = new int[numVertices];
+		int[] parent = new int[numVertices];
+		Arrays.fill(distance, -1);
+		Arrays.fill(parent, -1);
+		distance[source] = 0;
+		parent[source] = source;
+
+		int[] queue = new int[] { source };
+		int queueSize = 1;
+		int[] next = new int[numVertices];
+		long edgesToCheck = graph.edgeCount();
+		long scoutCount = graph.degree(source);
+		int level = 0;
+
+		while (queueSize > 0) {
+			if (scoutCount > edgesToCheck / ALPHA) {
+				long[] front = new long[(numVertices + 63) >>> 6];
+				long[] nextFront = new long[front.length];
+				for (int i = 0; i < queueSize; i++) {
+					front[queue[i] >>> 6] |= 1L << queue[i];
+				}
+				long awake = queueSize;
+				long oldAwake;
+				do {
+					oldAwake = awake;
+					awake = bottomUpStep(transpose, front, nextFront, distance,
+							parent, level, pool);
+					long[] swap = front;
+					front = nextFront;
+					nextFront = swap;
+					level++;
+				} while (awake >= oldAwake || awake > numVertices / BETA);
+				queueSize = toQueue(front, next);
+				int[] swap = queue;
+				queue = next;
+				next = swap.length == numVertices ? swap : new int[numVertices];
+				scoutCount = 1;
+			}
+			else {
+				edgesToCheck -= scoutCount;
+				AtomicInteger tail = new AtomicInteger();
+				scoutCount = topDownStep(graph, queue, queueSize, next, tail,
+						distance, parent, level, pool);
+				queueSize = tail.get();
+				int[] swap = queue;
+				queue = next;
+				next = swap.length == numVertices ? swap : new int[numVertices];
+				level++;
+			}
+		}
+		return new Result(distance, parent);
+	}
+
+	/**
+	 * Expands the frontier queue[0, queueSize) by claiming the unvisited
+	 * neighbors of each frontier vertex. Every worker gathers what it
+	 * claims in a small local buffer and appends the buffer to next in one
+	 * atomic step. Returns the number of edges leaving the new frontier.
+	 */
+	private static long topDownStep(CSRGraph graph, int[] queue, int queueSize,
+			int[] next, AtomicInteger tail, int[] distance, int[] parent,
+			int level, ForkJoinPool pool) {
+		int grain = ParallelLoops.grain(pool, queueSize, 64);
+		return ParallelLoops.sum(pool, 0, queueSize, grain, (lo, hi) -> {
+			int[] buffer = new int[256];
+			int size = 0;
+			long scout = 0;
+			for (int i = lo; i < hi; i++) {
+				int u = queue[i];
+				for (int e = graph.edgesBegin(u); e < graph.edgesEnd(u); e++) {
+					int v = graph.target(e);
+					if (parent[v] < 0 && INT_ARRAY.compareAndSet(parent, v, -1, u)) {
+						distance[v] = level + 1;
+						scout += graph.degree(v);
+						if (size == buffer.length) {
+							System.arraycopy(buffer, 0, next, tail.getAndAdd(size), size);
+							size = 0;
+						}
+						buffer[size++] = v;
+					}
+				}
+			}
+			System.arraycopy(buffer, 0, next, tail.getAndAdd(size), size);
+			return scout;
+		});
+	}
+
+	/**
+	 * Expands the frontier bitset front into nextFront by letting every
+	 * unvisited vertex search its in-edges for a parent in the frontier.
+	 * Chunks are whole 64-vertex words, so each word of nextFront is only
+	 * written by one worker. Returns the size of the new frontier.
+	 */
+	private static long bottomUpStep(CSRGraph transpose, long[] front, long[] nextFront,
+			int[] distance, int[] parent, int level, ForkJoinPool pool) {
+		int numVertices = transpose.vertexCount();
+		int grain = ParallelLoops.grain(pool, front.length, 16);
+		return ParallelLoops.sum(pool, 0, front.length, grain, (lo, hi) -> {
+			long awake = 0;
+			for (int w = lo; w < hi; w++) {
+				long word = 0;
+				int end = Math.min(numVertices, (w + 1) << 6);
+				for (int v = w << 6; v < end; v++) {
+					if (parent[v] >= 0) {
+						continue;
+					}
+					for (int e = transpose.edgesBegin(v); e < transpose.edgesEnd(v); e++) {
+						int u = transpose.target(e);
+						if ((front[u >>> 6] & (1L << u)) != 0) {
+							parent[v] = u;
+							distance[v] = level + 1;
+							word |= 1L << v;
+							awake++;
+							break;
+						}
+					}
+				}
+				nextFront[w] = word;
+			}
+			return awake;
+		});
+	}
+
+	/**
+	 * Writes the vertices set in the bitset into queue and returns how
+	 * many there were.
+	 */
+	private static int toQueue(long[] bits, int[] queue) {
+		int size = 0;
+		for (int w = 0; w < bits.length; w++) {
+			long word = bits[w];
+			while (word != 0) {
+				queue[size++] = (w << 6) + Long.numberOfTrailingZeros(word);
+				word &= word - 1;
+			}
+		}
+		return size;
+	}
+
+}
@@ -0,0 +1,78 @@
+package practice.datastructures;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+
+/**
+ * Splits a range of ints into chunks and runs them across a ForkJoinPool.
+ * Used by the parallel graph kernels to loop over vertices or frontiers.
+ *
+ * @author sarablinn
+ *
+ */
+class ParallelLoops {
+
+	/**
+	 * The work done on one chunk [lo, hi) of the range. Returns a count
+	 * that is summed over all chunks, or 0 if nothing needs counting.
+	 */
+	interface RangeBody {
+		long run(int lo, int hi);
+	}
+
+	/**
+	 * Runs body over [lo, hi) in chunks of at most grain ints and returns
+	 * the sum of what each chunk returned.
+	 * @param pool ForkJoinPool
+	 * @param lo int first index
+	 * @param hi int one past the last index
+	 * @param grain int largest chunk run by a single task
+	 * @param body RangeBody
+	 * @return long
+	 */
+	static long sum(ForkJoinPool pool, int lo, int hi, int grain, RangeBody body) {
+		if (hi - lo <= grain) {
+			return body.run(lo, hi);
+		}
+		return pool.invoke(new RangeTask(lo, hi, Math.max(1, grain), body));
+	}
+
+	/**
+	 * Picks a chunk size that gives each worker of the pool several chunks
+	 * of a range of the given size, but never less than minimum.
+	 * @param pool ForkJoinPool
+	 * @param size int
+	 * @param minimum int
+	 * @return int
+	 */
+	static int grain(ForkJoinPool pool, int size, int minimum) {
+		return Math.max(minimum, size / (pool.getParallelism() * 8));
+	}
+
+	private static class RangeTask extends RecursiveTask<Long> {
+		private static final long serialVersionUID = 1L;
+		private final int lo, hi, grain;
+		private final RangeBody body;
+
+		RangeTask(int lo, int hi, int grain, RangeBody body) {
+			this.lo = lo;
+			this.hi = hi;
+			this.grain = grain;
+			this.body = body;
+		}
+
+		@Override
+		protected Long compute() {
+			if (hi - lo <= grain) {
+				return body.run(lo, hi);
+			}
+			int mid = (lo + hi) >>> 1;
+			RangeTask left = new RangeTask(lo, mid, grain, body);
+			left.fork();
+			long right = new RangeTask(mid, hi, grain, body).compute();
+			return right + left.join();
+		}
+	}
+
+}
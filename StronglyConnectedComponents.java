@@ -0,0 +1,130 @@
+package practice.datastructures;
+
+import java.util.Arrays;
+
+
+/**
+ * Strongly connected components of a directed CSRGraph, using Tarjan's
+ * algorithm on top of the iterative DepthFirstSearch engine, so graphs with
+ * paths millions of vertices long cannot overflow the call stack. All the
+ * bookkeeping is kept in int arrays indexed by vertex:
+ * <ul>
+ * <li><b>index</b>: the order in which the search discovered each vertex.</li>
+ * <li><b>low</b>: the lowest index reachable from the vertex's subtree
+ * through at most one back or cross edge into an unfinished component.</li>
+ * <li><b>pending</b>: a stack of the vertices whose component is not yet
+ * known.</li>
+ * </ul>
+ * A vertex whose low equals its own index is the root of a component, and
+ * every vertex above it on the pending stack belongs to that component.
+ *
+ * @author sarablinn
+ *
+ */
+public class StronglyConnectedComponents {
+
+	//———————————————————————————————————————————————————————————
+
+	/**
+	 * The component of every vertex. Tarjan's algorithm finishes a
+	 * component only after every component it has an edge to, so the
+	 * components are numbered 0 to getCount() - 1 in reverse topological
+	 * order: every edge between two components goes from a higher label to
+	 * a lower one.
+	 */
+	public static class Result {
+		private final int[] labels;
+		private final int[] sizes;
+
+		Result(int[] labels, int[] sizes) {
+			this.labels = labels;
+			this.sizes = sizes;
+		}
+
+		public int[] getLabels() { return labels; }
+
+		public int getCount() { return sizes.length; }
+
+		/**
+		 * Returns the number of vertices in each component, indexed by label.
+		 * @return int array
+		 */
+		public int[] getSizes() { return sizes; }
+	}
+
+	//———————————————————————————————————————————————————————————
+
+	/**
+	 * Finds the strongly connected components of the graph.
+	 * @param graph CSRGraph built with addEdge()
+	 * @return Result
+	 */
+	public static Result find(CSRGraph graph) {
+		Tarjan tarjan = new Tarjan(graph.vertexCount());
+		new DepthFirstSearch(graph, false).searchAll(tarjan);
+		int[] sizes = new int[tarjan.count];
+		for (int label : tarjan.labels) {
+			sizes[label]++;
+		}
+		return new Result(tarjan.labels, sizes);
+	}
+
+	/**
+	 * The visitor that keeps index, low and the pending stack up to date
+	 * as the search meets vertices and edges.
+	 */
+	private static class Tarjan implements DepthFirstSearch.Visitor {
+		private final int[] index;
+		private final int[] low;
+		private final int[] pending;
+		private final int[] labels;
+		private int discovered = 0;
+		private int top = 0;
+		private int count = 0;
+
+		Tarjan(int numVertices) {
+			index = new int[numVertices];
+			low = new int[numVertices];
+			pending = new int[numVertices];
+			labels = new int[numVertices];
+			Arrays.fill(labels, -1);
+		}
+
+		@Override
+		public void preVisit(int v, int parent) {
+			index[v] = discovered;
+			low[v] = discovered;
+			discovered++;
+			pending[top++] = v;
+		}
+
+		@Override
+		public void backEdge(int u, int v) {
+			low[u] = Math.min(low[u], index[v]);
+		}
+
+		@Override
+		public void crossEdge(int u, int v) {
+			// a finished vertex that is still pending is in u's component
+			if (labels[v] < 0) {
+				low[u] = Math.min(low[u], index[v]);
+			}
+		}
+
+		@Override
+		public void postVisit(int v, int parent) {
+			if (low[v] == index[v]) {
+				int w;
+				do {
+					w = pending[--top];
+					labels[w] = count;
+				} while (w != v);
+				count++;
+			}
+			if (parent >= 0) {
+				low[parent] = Math.min(low[parent], low[v]);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,204 @@
+package practice.datastructures;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import practice.datastructures.TreeGraph.Vertex;
+
+
+/**
+ * A Spliterator over the vertices of a binary subtree of a TreeGraph, in
+ * preorder, inorder or postorder. It backs TreeGraph.preorderStream() and
+ * the other traversal streams.
+ * <p>
+ * The work still to be done is a stack of items, the next one on top. An
+ * item is either a whole subtree, which is expanded into its root and its
+ * two child subtrees in the traversal's order when it reaches the top, or
+ * a single vertex, whose subtrees have already been expanded. Walking the
+ * stack is the same explicit stack walk that preorder(), inorder() and
+ * postorder() make.
+ * <p>
+ * trySplit() hands the top of the stack, the part of the traversal that
+ * comes first, to a new Spliterator, and keeps the rest. If only one
+ * subtree is left, it is expanded first, so that its left subtree goes to
+ * one worker and its right subtree stays with the other. A parallel stream
+ * thus splits the tree along its child links, the way a recursive
+ * ForkJoin task over the tree would, and the results are still combined
+ * in the traversal's order.
+ * <p>
+ * Every vertex keeps the size of its subtree, so the Spliterator knows
+ * exactly how many vertices it has left, and so does each part split off
+ * it: it is SIZED and SUBSIZED, and count() need not walk the tree.
+ *
+ * @author sarablinn
+ *
+ */
+public class SubtreeSpliterator implements Spliterator<Vertex> {
+
+	public enum Order { PREORDER, INORDER, POSTORDER }
+
+	private final Order order;
+	// the stack: vertices[i] is a whole subtree if whole[i], else a single
+	// vertex; the top is at size - 1. remaining is the number of vertices
+	// the items hold
+	private Vertex[] vertices;
+	private boolean[] whole;
+	private int size = 0;
+	private long remaining = 0;
+
+	/**
+	 * Creates a Spliterator over the subtree under rootVertex.
+	 * @param rootVertex Vertex, or null for an empty subtree
+	 * @param order Order
+	 */
+	public SubtreeSpliterator(Vertex rootVertex, Order order) {
+		this(order, 16);
+		if (rootVertex != null) {
+			push(rootVertex, true);
+		}
+	}
+
+	private SubtreeSpliterator(Order order, int capacity) {
+		this.order = order;
+		this.vertices = new Vertex[capacity];
+		this.whole = new boolean[capacity];
+	}
+
+	//———————————————————————————————————————————————————————————
+
+	@Override
+	public boolean tryAdvance(Consumer<? super Vertex> action) {
+		while (size > 0) {
+			Vertex v = vertices[--size];
+			boolean isWhole = whole[size];
+			vertices[size] = null;
+			remaining -= isWhole ? v.getSubtreeSize() : 1;
+			if (!isWhole || (v.getLeftChild() == null && v.getRightChild() == null)) {
+				action.accept(v);
+				return true;
+			}
+			if (order == Order.PREORDER) {
+				// the root comes first, so it need not go on the stack
+				pushChildren(v);
+				action.accept(v);
+				return true;
+			}
+			expand(v);
+		}
+		return false;
+	}
+
+	@Override
+	public void forEachRemaining(Consumer<? super Vertex> action) {
+		while (tryAdvance(action)) {
+		}
+	}
+
+	/**
+	 * Splits off the first part of the traversal, about half of the
+	 * remaining vertices, or returns null if only one vertex is left.
+	 */
+	@Override
+	public Spliterator<Vertex> trySplit() {
+		if (size == 1 && whole[0]) {
+			Vertex v = vertices[0];
+			if (v.getLeftChild() == null && v.getRightChild() == null) {
+				return null;
+			}
+			size = 0;
+			remaining = 0;
+			vertices[0] = null;
+			expand(v);
+		}
+		if (size < 2) {
+			return null;
+		}
+		// take items from the top until they hold half the vertices, but
+		// leave at least the bottom one
+		int k = size - 1;
+		long taken = sizeOf(k);
+		while (k > 1 && taken < remaining / 2) {
+			taken += sizeOf(--k);
+		}
+		SubtreeSpliterator prefix = new SubtreeSpliterator(order, Math.max(16, 2 * (size - k)));
+		System.arraycopy(vertices, k, prefix.vertices, 0, size - k);
+		System.arraycopy(whole, k, prefix.whole, 0, size - k);
+		prefix.size = size - k;
+		prefix.remaining = taken;
+		Arrays.fill(vertices, k, size, null);
+		size = k;
+		remaining -= taken;
+		return prefix;
+	}
+
+	@Override
+	public long estimateSize() {
+		return remaining;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | NONNULL | SIZED | SUBSIZED;
+	}
+
+	//———————————————————————————————————————————————————————————
+
+	/**
+	 * Pushes the root and child subtrees of the subtree under v so that
+	 * they come off the stack in the traversal's order.
+	 */
+	private void expand(Vertex v) {
+		switch (order) {
+			case PREORDER:
+				pushChildren(v);
+				push(v, false);
+				break;
+			case INORDER:
+				if (v.getRightChild() != null) {
+					push(v.getRightChild(), true);
+				}
+				push(v, false);
+				if (v.getLeftChild() != null) {
+					push(v.getLeftChild(), true);
+				}
+				break;
+			case POSTORDER:
+				push(v, false);
+				pushChildren(v);
+				break;
+		}
+	}
+
+	/**
+	 * Pushes the right, then the left subtree of v, so that the left one
+	 * comes off the stack first.
+	 */
+	private void pushChildren(Vertex v) {
+		if (v.getRightChild() != null) {
+			push(v.getRightChild(), true);
+		}
+		if (v.getLeftChild() != null) {
+			push(v.getLeftChild(), true);
+		}
+	}
+
+	private void push(Vertex v, boolean isWhole) {
+		if (size == vertices.length) {
+			vertices = Arrays.copyOf(vertices, size * 2);
+			whole = Arrays.copyOf(whole, size * 2);
+		}
+		vertices[size] = v;
+		whole[size] = isWhole;
+		size++;
+		remaining += isWhole ? v.getSubtreeSize() : 1;
+	}
+
+	/**
+	 * Returns the number of vertices held by stack item i.
+	 */
+	private long sizeOf(int i) {
+		return whole[i] ? vertices[i].getSubtreeSize() : 1;
+	}
+
+}
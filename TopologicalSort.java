@@ -0,0 +1,167 @@
+package practice.datastructures;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Topological order of a directed CSRGraph, using Kahn's algorithm: count
+ * every vertex's in-edges, start from the vertices with none, and each time
+ * a vertex is placed, remove its out-edges; a vertex is ready once its last
+ * in-edge is gone. If some vertices are never ready, they lie on or behind
+ * a cycle, and the graph has no topological order.
+ * <p>
+ * sort(graph) places one ready vertex at a time, lowest first. The
+ * parallel sort(graph, pool) places every ready vertex of a round at once,
+ * splitting the round across a ForkJoinPool; in-edge counts are lowered
+ * with atomic decrements, and a vertex joins the next round when a worker
+ * takes its count to zero. Each round is sorted before it is placed, so
+ * both orders are the same from run to run.
+ *
+ * @author sarablinn
+ *
+ */
+public class TopologicalSort {
+
+	private static final VarHandle INT_ARRAY = MethodHandles.arrayElementVarHandle(int[].class);
+
+	/**
+	 * Returns the vertices of the graph in topological order, always taking
+	 * the lowest ready vertex next, or null if the graph has a cycle.
+	 * @param graph CSRGraph built with addEdge()
+	 * @return int array of every vertex, or null
+	 */
+	public static int[] sort(CSRGraph graph) {
+		int numVertices = graph.vertexCount();
+		int[] inDegree = new int[numVertices];
+		for (int e = 0; e < graph.edgeCount(); e++) {
+			inDegree[graph.target(e)]++;
+		}
+		// the ready vertices, kept in a binary min-heap
+		int[] ready = new int[numVertices];
+		int readySize = 0;
+		for (int v = 0; v < numVertices; v++) {
+			if (inDegree[v] == 0) {
+				ready[readySize++] = v;
+			}
+		}
+		int[] order = new int[numVertices];
+		int placed = 0;
+		while (readySize > 0) {
+			int u = ready[0];
+			ready[0] = ready[--readySize];
+			siftDown(ready, readySize);
+			order[placed++] = u;
+			for (int e = graph.edgesBegin(u); e < graph.edgesEnd(u); e++) {
+				int v = graph.target(e);
+				if (--inDegree[v] == 0) {
+					siftUp(ready, readySize++, v);
+				}
+			}
+		}
+		return placed == numVertices ? order : null;
+	}
+
+	private static void siftUp(int[] heap, int i, int v) {
+		while (i > 0 && heap[(i - 1) >>> 1] > v) {
+			heap[i] = heap[(i - 1) >>> 1];
+			i = (i - 1) >>> 1;
+		}
+		heap[i] = v;
+	}
+
+	private static void siftDown(int[] heap, int size) {
+		if (size == 0) {
+			return;
+		}
+		int v = heap[0];
+		int i = 0;
+		for (int child = 1; child < size; child = 2 * i + 1) {
+			if (child + 1 < size && heap[child + 1] < heap[child]) {
+				child++;
+			}
+			if (heap[child] >= v) {
+				break;
+			}
+			heap[i] = heap[child];
+			i = child;
+		}
+		heap[i] = v;
+	}
+
+	/**
+	 * Returns the vertices of the graph in topological order, placing the
+	 * ready vertices of each round in parallel, or null if the graph has a
+	 * cycle. Every vertex comes after all vertices of earlier rounds, so
+	 * the rounds are the graph's levels: a vertex's round is the length of
+	 * the longest path ending at it.
+	 * @param graph CSRGraph built with addEdge()
+	 * @param pool ForkJoinPool
+	 * @return int array of every vertex, or null
+	 */
+	public static int[] sort(CSRGraph graph, ForkJoinPool pool) {
+		int numVertices = graph.vertexCount();
+		int[] inDegree = new int[numVertices];
+		int vertexGrain = ParallelLoops.grain(pool, numVertices, 1024);
+		ParallelLoops.sum(pool, 0, numVertices, vertexGrain, (lo, hi) -> {
+			for (int u = lo; u < hi; u++) {
+				for (int e = graph.edgesBegin(u); e < graph.edgesEnd(u); e++) {
+					INT_ARRAY.getAndAdd(inDegree, graph.target(e), 1);
+				}
+			}
+			return 0;
+		});
+
+		// order[0, placed) holds the placed rounds, order[placed, end) the
+		// current round, and the next round is appended after end
+		int[] order = new int[numVertices];
+		AtomicInteger tail = new AtomicInteger();
+		ParallelLoops.sum(pool, 0, numVertices, vertexGrain, (lo, hi) -> {
+			int[] buffer = new int[256];
+			int size = 0;
+			for (int v = lo; v < hi; v++) {
+				if (inDegree[v] == 0) {
+					if (size == buffer.length) {
+						System.arraycopy(buffer, 0, order, tail.getAndAdd(size), size);
+						size = 0;
+					}
+					buffer[size++] = v;
+				}
+			}
+			System.arraycopy(buffer, 0, order, tail.getAndAdd(size), size);
+			return 0;
+		});
+		int placed = 0;
+		while (placed < tail.get()) {
+			int begin = placed;
+			int end = tail.get();
+			Arrays.sort(order, begin, end);
+			int grain = ParallelLoops.grain(pool, end - begin, 64);
+			ParallelLoops.sum(pool, begin, end, grain, (lo, hi) -> {
+				int[] buffer = new int[256];
+				int size = 0;
+				for (int i = lo; i < hi; i++) {
+					int u = order[i];
+					for (int e = graph.edgesBegin(u); e < graph.edgesEnd(u); e++) {
+						int v = graph.target(e);
+						if ((int) INT_ARRAY.getAndAdd(inDegree, v, -1) == 1) {
+							if (size == buffer.length) {
+								System.arraycopy(buffer, 0, order, tail.getAndAdd(size), size);
+								size = 0;
+							}
+							buffer[size++] = v;
+						}
+					}
+				}
+				System.arraycopy(buffer, 0, order, tail.getAndAdd(size), size);
+				return 0;
+			});
+			placed = end;
+		}
+		return placed == numVertices ? order : null;
+	}
+
+}
@@ -2,10 +2,22 @@ package practice.datastructures;
 
 import java.io.File;
 import java.io.FileWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A Tree is an undirected graph without cycles. 
@@ -49,6 +61,14 @@ public class TreeGraph {
 		private Vertex left = null;
 		private Vertex right = null;
 		private int value;
+		// dense index given by the TreeGraph the vertex was added to
+		private int id = -1;
+		// the vertex this one is a child of, and the height and number of
+		// vertices of the subtree under it, kept up to date on every change
+		// of a child link
+		private Vertex parent = null;
+		private int height = 1;
+		private int size = 1;
 
 		public Vertex(String name){
 			this.name = name;
@@ -62,14 +82,123 @@ public class TreeGraph {
 		}
 
 		public String getName() { return name; }
+
+		/**
+		 * Returns the vertex's index in its TreeGraph, from 0 up to
+		 * vertexCount() - 1, so it can index an array; or -1 if the vertex
+		 * was never added to one. Same as getVIndex(vertex).
+		 * @return int
+		 */
+		public int getId() { return id; }
 		
 		public Vertex getLeftChild() { return left; }
 		
 		public Vertex getRightChild() { return right; }
 		
-		public void setLeftChild(Vertex v) { this.left = v; }
+		/**
+		 * Returns the vertex this one is the left or right child of, or null
+		 * if it is no vertex's child.
+		 * @return Vertex
+		 */
+		public Vertex getParent() { return parent; }
+		
+		/**
+		 * Returns the height of the subtree under the vertex, 1 for a leaf.
+		 * @return int
+		 */
+		public int getHeight() { return height; }
+		
+		/**
+		 * Returns the number of vertices in the subtree under the vertex,
+		 * itself included.
+		 * @return int
+		 */
+		public int getSubtreeSize() { return size; }
+		
+		public void setLeftChild(Vertex v) { setChild(v, true); }
+		
+		public void setRightChild(Vertex v) { setChild(v, false); }
 		
-		public void setRightChild(Vertex v) { this.right = v; }
+		/**
+		 * Makes v the left or right child of this vertex, in place of the
+		 * old child, which is left without a parent. A vertex has one
+		 * parent, so if v was another vertex's child it is first removed
+		 * from there. The heights and sizes of both vertices' ancestors are
+		 * then updated, which takes time in the depth of the vertices: a
+		 * tree is cheapest to build from the leaves up.
+		 * @throws IllegalArgumentException if v is this vertex or one of
+		 * its ancestors, which would make a cycle
+		 */
+		private void setChild(Vertex v, boolean isLeft) {
+			Vertex old = isLeft ? left : right;
+			if(old == v) {
+				return;
+			}
+			if(v == this) {
+				throw new IllegalArgumentException(name + " cannot be its own child.");
+			}
+			// only a larger subtree can hold this vertex
+			if(v != null && v.size > size) {
+				for(Vertex a = this; a != null; a = a.parent) {
+					if(a == v) {
+						throw new IllegalArgumentException(v.getName() 
+								+ " is an ancestor of " + name + ".");
+					}
+				}
+			}
+			if(v != null && v.parent != null) {
+				v.parent.removeChild(v);
+			}
+			if(old != null) {
+				old.parent = null;
+			}
+			if(isLeft) {
+				left = v;
+			}
+			else {
+				right = v;
+			}
+			if(v != null) {
+				v.parent = this;
+			}
+			updateAncestors();
+		}
+		
+		private void removeChild(Vertex v) {
+			if(left == v) {
+				left = null;
+			}
+			else {
+				right = null;
+			}
+			v.parent = null;
+			updateAncestors();
+		}
+		
+		/**
+		 * Recomputes the height and size of this vertex and of its
+		 * ancestors, stopping at the first vertex whose values did not
+		 * change, as those above it cannot change either.
+		 */
+		private void updateAncestors() {
+			for(Vertex a = this; a != null && a.update(); a = a.parent) {
+			}
+		}
+		
+		/**
+		 * Recomputes the height and size of this vertex from its children,
+		 * and returns true if either changed.
+		 */
+		private boolean update() {
+			int h = Math.max(left == null ? 0 : left.height, right == null ? 0 : right.height) + 1;
+			int s = (left == null ? 0 : left.size) + (right == null ? 0 : right.size) + 1;
+			if(h == height && s == size) {
+				return false;
+			}
+			height = h;
+			size = s;
+			return true;
+		}
 		
 		public void setValue(int value) { this.value = value; }
 		
@@ -92,7 +221,10 @@ public class TreeGraph {
 
 	private Map<Vertex, LinkedList<Edge>> tree;
 	
-	private LinkedList<String> indexList = new LinkedList<String>();
+	// vertices by id, and by name, so lookups need not scan the tree
+	private ArrayList<Vertex> vertexList = new ArrayList<>();
+	
+	private Map<String, Vertex> vertexByName = new HashMap<>();
 	
 	private Vertex root;
 	
@@ -126,7 +258,7 @@ public class TreeGraph {
 			Vertex vertex = new Vertex(name);
 			LinkedList<Edge> edges = new LinkedList<>();
 			tree.put(vertex, edges);
-			indexList.add(name);
+			index(vertex);
 			if(getRoot() == null) {
 				setRoot(vertex);
 			}
@@ -151,7 +283,7 @@ public class TreeGraph {
 			LinkedList<Edge> edges = new LinkedList<>();
 			vertex.setValue(value);
 			tree.put(vertex, edges);
-			indexList.add(name);
+			index(vertex);
 			if(getRoot() == null) {
 				setRoot(vertex);
 			}
@@ -160,6 +292,25 @@ public class TreeGraph {
 		return false;
 	}
 
+	private void index(Vertex vertex) {
+		vertex.id = vertexList.size();
+		vertexList.add(vertex);
+		vertexByName.put(vertex.getName(), vertex);
+	}
+
+	/**
+	 * Returns the number of vertices in the tree graph.
+	 * @return int
+	 */
+	public int vertexCount() { return vertexList.size(); }
+
+	/**
+	 * Returns the Vertex whose getId() is the given id.
+	 * @param id int
+	 * @return Vertex
+	 */
+	public Vertex getVertex(int id) { return vertexList.get(id); }
+
 	/**
 	 * Returns the root Vertex of the tree graph.
 	 * @return Vertex root
@@ -310,11 +461,7 @@ public class TreeGraph {
 	}
 	
 	public boolean hasVertex(Vertex vertex) {
-		for(Entry<Vertex, LinkedList<Edge>> node : tree.entrySet()) {
-			if(vertex.equals(node.getKey()) ) {
-				return true;
-			}
-		} return false;
+		return tree.containsKey(vertex);
 	}
 	
 	/**
@@ -324,11 +471,7 @@ public class TreeGraph {
 	 * @return boolean
 	 */
 	public boolean hasVertex(String vertex) {
-		for(Entry<Vertex, LinkedList<Edge>> node : tree.entrySet()) {
-			if(vertex.equals(node.getKey().getName()) ) {
-				return true;
-			}
-		} return false;
+		return vertexByName.containsKey(vertex);
 	}
 	
 	/**
@@ -338,15 +481,12 @@ public class TreeGraph {
 	 * @return Vertex
 	 */
 	public Vertex getVertex(String vertex) {
-		if(vertex.equals(null)) {
+		if(vertex == null) {
 			return null;
 		}
-		else {
-			for(Entry<Vertex, LinkedList<Edge>> node : tree.entrySet()) {
-				if(vertex.equals(node.getKey().getName()) ) {
-					return node.getKey();
-				}
-			}
+		Vertex v = vertexByName.get(vertex);
+		if(v != null) {
+			return v;
 		}
 		System.out.println("Graph does not contain " + vertex + ".");
 		return null;
@@ -355,12 +495,13 @@ public class TreeGraph {
 	/**
 	 * Gets the index of a given Vertex, meaning that it returns 
 	 * the index value according to the order that the vertex was added to 
-	 * the graph. Useful for certain applications.
+	 * the graph. Useful for certain applications. This is the vertex's
+	 * getId(); -1 if the vertex is not in this graph.
 	 * @param vertex
 	 * @return int
 	 */
 	public int getVIndex(Vertex vertex) {
-		return indexList.indexOf(vertex.getName());
+		return hasVertex(vertex) ? vertex.getId() : -1;
 	}
 	/**
 	 * Gets the index of the name of a given Vertex, meaning that it returns 
@@ -370,9 +511,51 @@ public class TreeGraph {
 	 * @return int
 	 */
 	public int getVIndex(String vertex) {
-		return indexList.indexOf(vertex);
+		Vertex v = vertexByName.get(vertex);
+		return v == null ? -1 : v.id;
 	}
-	
+
+	/**
+	 * Renumbers the vertices in breadth first order from the root, so
+	 * that a vertex's neighbors get indexes right after one another and
+	 * the tree's map iterates level by level. Vertices the root cannot
+	 * reach keep their relative order after the rest. Returns the old to
+	 * new mapping: element i is the new getVIndex() and getId() of the
+	 * vertex whose index was i. Traversals report vertices by name, and so are
+	 * unaffected.
+	 * @return int array of new indexes, by old index
+	 */
+	public int[] relabelBreadthFirst() {
+		LinkedHashMap<Vertex, LinkedList<Edge>> relabeled = new LinkedHashMap<>();
+		ArrayDeque<Vertex> queue = new ArrayDeque<>();
+		if(root != null && tree.containsKey(root)) {
+			relabeled.put(root, tree.get(root));
+			queue.add(root);
+		}
+		while(!queue.isEmpty()) {
+			for(Edge edge : tree.get(queue.poll())) {
+				Vertex v = edge.getDest();
+				if(!relabeled.containsKey(v)) {
+					relabeled.put(v, tree.get(v));
+					queue.add(v);
+				}
+			}
+		}
+		for(Entry<Vertex, LinkedList<Edge>> node : tree.entrySet()) {
+			relabeled.putIfAbsent(node.getKey(), node.getValue());
+		}
+
+		int[] newIndex = new int[vertexList.size()];
+		vertexList.clear();
+		for(Vertex v : relabeled.keySet()) {
+			newIndex[v.id] = vertexList.size();
+			v.id = vertexList.size();
+			vertexList.add(v);
+		}
+		tree = relabeled;
+		return newIndex;
+	}
+
 	/**
 	 * Creates a String of all the data contained in the given Edge.
 	 * @param e Edge
@@ -451,7 +634,7 @@ public class TreeGraph {
 	
 	//———————————————————————————————————————————————————————————
 	//
-	// DEPTH FIRST (RECURSIVE) TRAVERSALS:
+	// DEPTH FIRST TRAVERSALS:
 	//      1
 	//     / \
 	//    2   3
@@ -464,47 +647,140 @@ public class TreeGraph {
 	
 	
 	/**
-	 * Pre order recursive traversal method that prints out the 
-	 * vertices, starting with the root, then a recursive call to 
-	 * the left subtree, then the right subtree. 
+	 * Pre order traversal method that prints out the vertices, starting 
+	 * with the root, then the left subtree, then the right subtree. 
+	 * Subtrees still to be visited are kept on an explicit stack rather 
+	 * than the call stack, so very deep trees cannot overflow it.
 	 * @param rootVertex
 	 */
 	public void preorder(Vertex rootVertex) {
+		ArrayDeque<Vertex> stack = new ArrayDeque<>();
 		if(rootVertex != null) {
-			System.out.print(rootVertex.getName() + " ");
-			preorder(rootVertex.getLeftChild());
-			preorder(rootVertex.getRightChild());
+			stack.push(rootVertex);
+		}
+		while(!stack.isEmpty()) {
+			Vertex v = stack.pop();
+			System.out.print(v.getName() + " ");
+			// push right first so that the left subtree is visited first
+			if(v.getRightChild() != null) {
+				stack.push(v.getRightChild());
+			}
+			if(v.getLeftChild() != null) {
+				stack.push(v.getLeftChild());
+			}
 		}
 	}
 	
 	/**
-	 * Post order recursive traversal method that prints out the 
-	 * vertices, starting with a recursive call to the left subtree,
-	 * then to the right subtree and lastly the root. 
+	 * Post order traversal method that prints out the vertices, starting 
+	 * with the left subtree, then the right subtree and lastly the root. 
+	 * Uses an explicit stack of the current path instead of recursion.
 	 * @param rootVertex Vertex
 	 */
 	public void postorder(Vertex rootVertex) {
-		if(rootVertex != null) {
-			postorder(rootVertex.getLeftChild());
-			postorder(rootVertex.getRightChild());
-			System.out.print(rootVertex.getName() + " ");
+		ArrayDeque<Vertex> stack = new ArrayDeque<>();
+		Vertex current = rootVertex;
+		Vertex lastVisited = null;
+		while(current != null || !stack.isEmpty()) {
+			if(current != null) {
+				stack.push(current);
+				current = current.getLeftChild();
+			}
+			else {
+				Vertex top = stack.peek();
+				// visit the right subtree first, unless we just came from it
+				if(top.getRightChild() != null && top.getRightChild() != lastVisited) {
+					current = top.getRightChild();
+				}
+				else {
+					System.out.print(top.getName() + " ");
+					lastVisited = stack.pop();
+				}
+			}
 		}
 	}
 	
 	/**
-	 * In order recursive traversal method that prints out the 
-	 * vertices, starting with a recursive call to the left subtree, 
-	 * then the root, then the right subtree. 
+	 * In order traversal method that prints out the vertices, starting 
+	 * with the left subtree, then the root, then the right subtree. 
+	 * Uses an explicit stack of the current path instead of recursion.
 	 * @param rootVertex Vertex
 	 */
 	public void inorder(Vertex rootVertex) {
-		if(rootVertex != null) {
-			inorder(rootVertex.getLeftChild());
-			System.out.print(rootVertex.getName() + " ");
-			inorder(rootVertex.getRightChild());
+		ArrayDeque<Vertex> stack = new ArrayDeque<>();
+		Vertex current = rootVertex;
+		while(current != null || !stack.isEmpty()) {
+			while(current != null) {
+				stack.push(current);
+				current = current.getLeftChild();
+			}
+			current = stack.pop();
+			System.out.print(current.getName() + " ");
+			current = current.getRightChild();
 		}
 	}
-	
+
+	/**
+	 * Returns the vertices of the subtree under rootVertex in pre order,
+	 * as a sequential Stream that can be made parallel. A parallel stream
+	 * splits the subtree along its child links, see SubtreeSpliterator,
+	 * and keeps the pre order where the terminal operation asks for it.
+	 * The tree must not be changed while the stream is in use.
+	 * @param rootVertex Vertex
+	 * @return Stream of Vertex
+	 */
+	public Stream<Vertex> preorderStream(Vertex rootVertex) {
+		return traversalStream(rootVertex, SubtreeSpliterator.Order.PREORDER);
+	}
+
+	/**
+	 * Returns the vertices of the tree in pre order, as preorderStream(getRoot()).
+	 * @return Stream of Vertex
+	 */
+	public Stream<Vertex> preorderStream() {
+		return preorderStream(getRoot());
+	}
+
+	/**
+	 * Returns the vertices of the subtree under rootVertex in post order,
+	 * as a Stream that splits like preorderStream().
+	 * @param rootVertex Vertex
+	 * @return Stream of Vertex
+	 */
+	public Stream<Vertex> postorderStream(Vertex rootVertex) {
+		return traversalStream(rootVertex, SubtreeSpliterator.Order.POSTORDER);
+	}
+
+	/**
+	 * Returns the vertices of the tree in post order, as postorderStream(getRoot()).
+	 * @return Stream of Vertex
+	 */
+	public Stream<Vertex> postorderStream() {
+		return postorderStream(getRoot());
+	}
+
+	/**
+	 * Returns the vertices of the subtree under rootVertex in order, as a
+	 * Stream that splits like preorderStream().
+	 * @param rootVertex Vertex
+	 * @return Stream of Vertex
+	 */
+	public Stream<Vertex> inorderStream(Vertex rootVertex) {
+		return traversalStream(rootVertex, SubtreeSpliterator.Order.INORDER);
+	}
+
+	/**
+	 * Returns the vertices of the tree in order, as inorderStream(getRoot()).
+	 * @return Stream of Vertex
+	 */
+	public Stream<Vertex> inorderStream() {
+		return inorderStream(getRoot());
+	}
+
+	private Stream<Vertex> traversalStream(Vertex rootVertex, SubtreeSpliterator.Order order) {
+		return StreamSupport.stream(new SubtreeSpliterator(rootVertex, order), false);
+	}
+
 	//———————————————————————————————————————————————————————————
 
 	
@@ -548,62 +824,466 @@ public class TreeGraph {
 	}
 	
 	/** 
-	 * Finds the height of a given Vertex in the tree graph.
+	 * Finds the height of a given Vertex in the tree graph: 0 for null,
+	 * 1 for a leaf. Every vertex keeps its height up to date as children
+	 * are set, so this takes constant time.
 	 * @param rootVertex
 	 * @return int
 	 */
 	public int height(Vertex rootVertex) {
-		if(rootVertex == null) {
-			return 0;
+		return rootVertex == null ? 0 : rootVertex.height;
+	}
+	
+	/**
+	 * Returns the number of vertices in the subtree under the given
+	 * Vertex, 0 for null. Kept up to date like height().
+	 * @param rootVertex Vertex
+	 * @return int
+	 */
+	public int subtreeSize(Vertex rootVertex) {
+		return rootVertex == null ? 0 : rootVertex.size;
+	}
+	
+	/**
+	 * Returns the height of the Vertex's left subtree less that of its
+	 * right subtree: in a balanced tree, such as the one insert() keeps,
+	 * every vertex's balance factor is -1, 0 or 1.
+	 * @param v Vertex
+	 * @return int
+	 */
+	public int balanceFactor(Vertex v) {
+		return height(v.left) - height(v.right);
+	}
+	
+	/**
+	 * Prints every vertex from every level in the tree. Makes one pass
+	 * over the tree with levelIterator(), rather than walking down from
+	 * the root again for every level.
+	 */
+	public void printLevelOrder() {
+		Iterator<List<Vertex>> levels = levelIterator(getRoot());
+		for(int i = 1; levels.hasNext(); i++) {
+			System.out.print("\n" + i + ": ");
+			for(Vertex v : levels.next()) {
+				System.out.print(v.toString() + " ");
+			}
+			System.out.println();
 		}
-		else {
-			int lHeight = height(rootVertex.getLeftChild());
-			int rHeight = height(rootVertex.getRightChild());
+	}
+	
+	//———————————————————————————————————————————————————————————
+	//
+	// LEVEL ORDER:
+	//      1          depth 0: 1
+	//     / \
+	//    2   3        depth 1: 2 3
+	//   / \
+	//  4   5          depth 2: 4 5
+	//
+	// The levels are found in one pass: the children of one level, left
+	// to right, are the next level. Only the current level is held at a
+	// time, so a tree of any size can be walked level by level.
+	
+	/**
+	 * Returns an iterator over the levels of the subtree under rootVertex,
+	 * from the top down, each level being its vertices from left to right.
+	 * Each level is built from the one before when next() is called, so
+	 * only one level is held at a time.
+	 * @param rootVertex Vertex
+	 * @return Iterator of List of Vertex
+	 */
+	public Iterator<List<Vertex>> levelIterator(Vertex rootVertex) {
+		return new Iterator<List<Vertex>>() {
+			private List<Vertex> level = rootVertex == null 
+					? Collections.<Vertex>emptyList() 
+					: Collections.singletonList(rootVertex);
 			
-			if(lHeight > rHeight) {
-				return (lHeight + 1);
+			@Override
+			public boolean hasNext() {
+				return !level.isEmpty();
 			}
-			else { 
-				return (rHeight + 1);
+			
+			@Override
+			public List<Vertex> next() {
+				if(level.isEmpty()) {
+					throw new NoSuchElementException();
+				}
+				List<Vertex> current = level;
+				List<Vertex> children = new ArrayList<>();
+				for(Vertex v : current) {
+					if(v.getLeftChild() != null) {
+						children.add(v.getLeftChild());
+					}
+					if(v.getRightChild() != null) {
+						children.add(v.getRightChild());
+					}
+				}
+				level = children;
+				return current;
+			}
+		};
+	}
+	
+	/**
+	 * Returns the levels of the subtree under rootVertex as a lazy,
+	 * sequential Stream, from the top down. See levelIterator().
+	 * @param rootVertex Vertex
+	 * @return Stream of List of Vertex
+	 */
+	public Stream<List<Vertex>> levels(Vertex rootVertex) {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+				levelIterator(rootVertex), Spliterator.ORDERED | Spliterator.NONNULL), false);
+	}
+	
+	/**
+	 * Returns the vertices k edges below rootVertex, from left to right.
+	 * Depth 0 is rootVertex itself, which printGivenLevel() calls level 1.
+	 * Only the levels above depth k are visited.
+	 * @param rootVertex Vertex
+	 * @param k int depth
+	 * @return List of Vertex, empty if the subtree is not that deep
+	 */
+	public List<Vertex> verticesAtDepth(Vertex rootVertex, int k) {
+		Iterator<List<Vertex>> levels = levelIterator(rootVertex);
+		for(int depth = 0; levels.hasNext(); depth++) {
+			List<Vertex> level = levels.next();
+			if(depth == k) {
+				return level;
 			}
 		}
+		return Collections.emptyList();
 	}
 	
 	/**
-	 * Prints every vertex from every level in the tree.
+	 * Counts the vertices at every depth of the subtree under rootVertex:
+	 * element k is the number of vertices k edges below rootVertex. The
+	 * length of the array is the subtree's height.
+	 * @param rootVertex Vertex
+	 * @return int array
 	 */
-	public void printLevelOrder() {
-		int h = height(getRoot());
-		for(int i = 1; i <= h; i++) {
-			System.out.print("\n" + i + ": ");
-			printGivenLevel(getRoot(), i);
-			System.out.println();
+	public int[] depthHistogram(Vertex rootVertex) {
+		int[] counts = new int[16];
+		int depth = 0;
+		Iterator<List<Vertex>> levels = levelIterator(rootVertex);
+		while(levels.hasNext()) {
+			if(depth == counts.length) {
+				counts = Arrays.copyOf(counts, depth * 2);
+			}
+			counts[depth++] = levels.next().size();
 		}
+		return Arrays.copyOf(counts, depth);
 	}
 	
-//	/**
-//	 * Returns the Kth smallest element.
-//	 * @param height
-//	 * @return int 
-//	 */
-//	public int getKthSmallest(int k) {
-//		LinkedList<Vertex> ordered = new LinkedList<>();
-//		LinkedList<Vertex> stump = new LinkedList<>();
-//		
-//		for (Entry<Vertex, LinkedList<Edge>> node : tree.entrySet()) {
-//			Vertex vertex = node.getKey();
-//			stump.add(vertex);
-//		}
-//		
-//		while(ordered.size() <= tree.size()) {
-//			int min = Integer.MAX_VALUE; 
-//		
-//		
-//			for(Vertex vertex : stump) {
-//				
-//			}
-//		}
-//	}
+//———————————————————————————————————————————————————————————
+	//
+	// BALANCED SEARCH TREE:
+	//        15 (7)           every vertex keeps the height and the
+	//       /      \          number of vertices (in brackets) of its
+	//    10 (3)   20 (3)      subtree
+	//    /  \     /  \
+	//   8   12   16   25
+	//
+	// insert() and delete() keep the tree under getRoot() an AVL tree
+	// ordered by Vertex value: an inorder traversal visits the values
+	// smallest first, and the heights of a vertex's two subtrees differ
+	// by at most one, so the tree is no more than about 1.44 log2(n) deep.
+	// The subtree sizes find the kth value, or count the values in a
+	// range, in one walk down from the root. Values may repeat. A tree
+	// built this way should not also be rewired by hand with
+	// setVertexChildren(), which keeps the heights and sizes but not the
+	// order or the balance. The methods here set the child links
+	// directly, and update each vertex once on the way back up.
+	
+	/**
+	 * Adds a new Vertex by the input String name with integer value to the
+	 * tree graph, as addVertex() does, and inserts it into the balanced
+	 * search tree under the root by its value. Returns false, and changes
+	 * nothing, if a Vertex by that name already exists.
+	 * @param name String
+	 * @param value int
+	 * @return boolean
+	 */
+	public boolean insert(String name, int value) {
+		if(!addVertex(name, value)) {
+			return false;
+		}
+		Vertex vertex = vertexByName.get(name);
+		// addVertex() makes the first vertex the root
+		if(root != vertex) {
+			root = insert(root, vertex);
+			root.parent = null;
+		}
+		return true;
+	}
+	
+	/**
+	 * Inserts a new Vertex with the given value into the balanced search
+	 * tree under the root, and returns it. The vertex is named after its
+	 * value and is not added to the graph's map, so many vertices of the
+	 * same value may be inserted without names of their own.
+	 * @param value int
+	 * @return Vertex
+	 */
+	public Vertex insert(int value) {
+		Vertex vertex = new Vertex(Integer.toString(value), value);
+		root = insert(root, vertex);
+		root.parent = null;
+		return vertex;
+	}
+	
+	private Vertex insert(Vertex node, Vertex vertex) {
+		if(node == null) {
+			return vertex;
+		}
+		// equal values go right, so they stay in the order inserted
+		if(vertex.value < node.value) {
+			node.left = insert(node.left, vertex);
+		}
+		else {
+			node.right = insert(node.right, vertex);
+		}
+		return rebalance(node);
+	}
+	
+	/**
+	 * Removes one Vertex with the given value from the balanced search
+	 * tree and returns it, or returns null if no vertex has that value.
+	 * A vertex added by insert(name, value) is only unlinked from the
+	 * tree; it stays in the graph's map.
+	 * @param value int
+	 * @return Vertex removed
+	 */
+	public Vertex delete(int value) {
+		Vertex[] removed = new Vertex[1];
+		root = delete(root, value, removed);
+		if(root != null) {
+			root.parent = null;
+		}
+		return removed[0];
+	}
+	
+	private Vertex delete(Vertex node, int value, Vertex[] removed) {
+		if(node == null) {
+			return null;
+		}
+		if(value < node.value) {
+			node.left = delete(node.left, value, removed);
+		}
+		else if(value > node.value) {
+			node.right = delete(node.right, value, removed);
+		}
+		else {
+			removed[0] = node;
+			Vertex left = node.left;
+			Vertex right = node.right;
+			node.left = null;
+			node.right = null;
+			node.parent = null;
+			node.height = 1;
+			node.size = 1;
+			if(left == null) {
+				return right;
+			}
+			if(right == null) {
+				return left;
+			}
+			// the next larger vertex, leftmost in the right subtree, takes
+			// the removed vertex's place
+			Vertex successor = right;
+			while(successor.left != null) {
+				successor = successor.left;
+			}
+			successor.right = deleteMin(right);
+			successor.left = left;
+			return rebalance(successor);
+		}
+		return rebalance(node);
+	}
+	
+	private Vertex deleteMin(Vertex node) {
+		if(node.left == null) {
+			return node.right;
+		}
+		node.left = deleteMin(node.left);
+		return rebalance(node);
+	}
+	
+	/**
+	 * Returns true if a vertex of the balanced search tree has the given
+	 * value.
+	 * @param value int
+	 * @return boolean
+	 */
+	public boolean contains(int value) {
+		Vertex v = root;
+		while(v != null) {
+			if(value == v.value) {
+				return true;
+			}
+			v = value < v.value ? v.left : v.right;
+		}
+		return false;
+	}
+	
+	/**
+	 * Returns the number of vertices in the balanced search tree.
+	 * @return int
+	 */
+	public int searchTreeSize() {
+		return sizeOf(root);
+	}
+	
+	/**
+	 * Returns the Vertex with the kth smallest value in the balanced
+	 * search tree, k = 1 being the smallest; or null if k is not from 1
+	 * to searchTreeSize().
+	 * @param k int
+	 * @return Vertex
+	 */
+	public Vertex kthSmallest(int k) {
+		if(k < 1 || k > sizeOf(root)) {
+			return null;
+		}
+		Vertex v = root;
+		while(true) {
+			int leftSize = sizeOf(v.left);
+			if(k <= leftSize) {
+				v = v.left;
+			}
+			else if(k == leftSize + 1) {
+				return v;
+			}
+			else {
+				k -= leftSize + 1;
+				v = v.right;
+			}
+		}
+	}
+	
+	/**
+	 * Returns the Vertex with the kth largest value in the balanced search
+	 * tree, k = 1 being the largest; or null if k is not from 1 to
+	 * searchTreeSize().
+	 * @param k int
+	 * @return Vertex
+	 */
+	public Vertex kthLargest(int k) {
+		if(k < 1 || k > sizeOf(root)) {
+			return null;
+		}
+		return kthSmallest(sizeOf(root) - k + 1);
+	}
+	
+	/**
+	 * Returns the number of values in the balanced search tree that are
+	 * smaller than the given value, which is the value's 0-based position
+	 * in sorted order if the tree contains it.
+	 * @param value int
+	 * @return int
+	 */
+	public int rank(int value) {
+		int count = 0;
+		Vertex v = root;
+		while(v != null) {
+			if(v.value < value) {
+				count += sizeOf(v.left) + 1;
+				v = v.right;
+			}
+			else {
+				v = v.left;
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * Returns the number of values in the balanced search tree from lo up
+	 * to and including hi, or 0 if lo is greater than hi.
+	 * @param lo int
+	 * @param hi int
+	 * @return int
+	 */
+	public int countInRange(int lo, int hi) {
+		if(lo > hi) {
+			return 0;
+		}
+		int atMostHi = 0;
+		Vertex v = root;
+		while(v != null) {
+			if(v.value <= hi) {
+				atMostHi += sizeOf(v.left) + 1;
+				v = v.right;
+			}
+			else {
+				v = v.left;
+			}
+		}
+		return atMostHi - rank(lo);
+	}
+	
+	private static int heightOf(Vertex v) {
+		return v == null ? 0 : v.height;
+	}
+	
+	private static int sizeOf(Vertex v) {
+		return v == null ? 0 : v.size;
+	}
+	
+	private static void update(Vertex v) {
+		if(v.left != null) {
+			v.left.parent = v;
+		}
+		if(v.right != null) {
+			v.right.parent = v;
+		}
+		v.update();
+	}
+	
+	//      v            l
+	//     / \          / \
+	//    l   c   ->   a   v
+	//   / \              / \
+	//  a   b            b   c
+	private static Vertex rotateRight(Vertex v) {
+		Vertex l = v.left;
+		v.left = l.right;
+		l.right = v;
+		update(v);
+		update(l);
+		return l;
+	}
+	
+	private static Vertex rotateLeft(Vertex v) {
+		Vertex r = v.right;
+		v.right = r.left;
+		r.left = v;
+		update(v);
+		update(r);
+		return r;
+	}
+	
+	/**
+	 * Updates v's height and size from its children, and rotates the
+	 * subtree back into balance if one side has grown two taller than the
+	 * other. Returns the subtree's new root.
+	 */
+	private static Vertex rebalance(Vertex v) {
+		update(v);
+		int balance = heightOf(v.left) - heightOf(v.right);
+		if(balance > 1) {
+			if(heightOf(v.left.left) < heightOf(v.left.right)) {
+				v.left = rotateLeft(v.left);
+			}
+			return rotateRight(v);
+		}
+		if(balance < -1) {
+			if(heightOf(v.right.right) < heightOf(v.right.left)) {
+				v.right = rotateRight(v.right);
+			}
+			return rotateLeft(v);
+		}
+		return v;
+	}
 	
 	
 	
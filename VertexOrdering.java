@@ -0,0 +1,266 @@
+package practice.datastructures;
+
+import java.util.Arrays;
+
+
+/**
+ * A renumbering of the vertices of a CSRGraph, chosen so that vertices
+ * visited one after another by a traversal sit close together in the
+ * offsets and targets arrays. Vertex ids given to addEdge() are usually
+ * arbitrary, which scatters every vertex's neighbors across memory; after
+ * apply(), a breadth first search walks the arrays mostly front to back.
+ * Three orders are offered:
+ * <ul>
+ * <li><b>byDegree</b>: highest degree first, so the hubs that most edges
+ * lead to share a few cache lines.</li>
+ * <li><b>breadthFirst</b>: the order a breadth first search visits the
+ * vertices in, so each vertex's unvisited neighbors get consecutive ids.</li>
+ * <li><b>reverseCuthillMcKee</b>: breadth first from a low degree vertex,
+ * taking each vertex's neighbors lowest degree first, then reversed. This
+ * keeps every edge's two ends close in id, that is it keeps the bandwidth
+ * of the adjacency matrix small.</li>
+ * </ul>
+ * The ordering keeps both directions of the mapping. apply() relabels a
+ * graph and keeps the order of every vertex's neighbors, so a traversal of
+ * the relabeled graph visits the same vertices in the same order; toOld()
+ * and toOldLabels() translate its result back to the original ids.
+ *
+ * @author sarablinn
+ *
+ */
+public class VertexOrdering {
+
+	// newIds[old] is the vertex's new id, oldIds[new] its original id
+	private final int[] newIds;
+	private final int[] oldIds;
+
+	private VertexOrdering(int[] oldIds) {
+		this.oldIds = oldIds;
+		this.newIds = new int[oldIds.length];
+		for (int v = 0; v < oldIds.length; v++) {
+			newIds[oldIds[v]] = v;
+		}
+	}
+
+	//———————————————————————————————————————————————————————————
+
+	/**
+	 * Numbers the vertices from highest to lowest degree, keeping the
+	 * original order among vertices of equal degree.
+	 * @param graph CSRGraph
+	 * @return VertexOrdering
+	 */
+	public static VertexOrdering byDegree(CSRGraph graph) {
+		int numVertices = graph.vertexCount();
+		int maxDegree = 0;
+		for (int u = 0; u < numVertices; u++) {
+			maxDegree = Math.max(maxDegree, graph.degree(u));
+		}
+		// counting sort: start[d] is the first new id of degree d
+		int[] start = new int[maxDegree + 2];
+		for (int u = 0; u < numVertices; u++) {
+			start[maxDegree - graph.degree(u) + 1]++;
+		}
+		for (int d = 0; d <= maxDegree; d++) {
+			start[d + 1] += start[d];
+		}
+		int[] oldIds = new int[numVertices];
+		for (int u = 0; u < numVertices; u++) {
+			oldIds[start[maxDegree - graph.degree(u)]++] = u;
+		}
+		return new VertexOrdering(oldIds);
+	}
+
+	/**
+	 * Numbers the vertices in the order a breadth first search from start
+	 * reaches them. The vertices start cannot reach follow, each remaining
+	 * component searched in turn from its lowest vertex.
+	 * @param graph CSRGraph
+	 * @param start int
+	 * @return VertexOrdering
+	 */
+	public static VertexOrdering breadthFirst(CSRGraph graph, int start) {
+		int numVertices = graph.vertexCount();
+		int[] order = new int[numVertices];
+		boolean[] visited = new boolean[numVertices];
+		int tail = 0;
+		if (numVertices > 0) {
+			tail = search(graph, start, visited, order, tail, null);
+		}
+		for (int u = 0; u < numVertices; u++) {
+			if (!visited[u]) {
+				tail = search(graph, u, visited, order, tail, null);
+			}
+		}
+		return new VertexOrdering(order);
+	}
+
+	/**
+	 * Numbers the vertices in reverse Cuthill-McKee order. Each component
+	 * is searched from its lowest degree vertex, and every vertex's
+	 * unvisited neighbors are queued lowest degree first; the resulting
+	 * order is then reversed. For the bandwidth to be small the graph
+	 * should be undirected, built with addUndirectedEdge().
+	 * @param graph CSRGraph
+	 * @return VertexOrdering
+	 */
+	public static VertexOrdering reverseCuthillMcKee(CSRGraph graph) {
+		int numVertices = graph.vertexCount();
+		// start each component from the lowest degree vertex not yet placed
+		int[] byDegree = byDegree(graph).oldIds;
+		int[] order = new int[numVertices];
+		boolean[] visited = new boolean[numVertices];
+		long[] scratch = new long[16];
+		int tail = 0;
+		for (int i = numVertices - 1; i >= 0; i--) {
+			if (!visited[byDegree[i]]) {
+				tail = search(graph, byDegree[i], visited, order, tail, scratch);
+			}
+		}
+		for (int i = 0, j = numVertices - 1; i < j; i++, j--) {
+			int swap = order[i];
+			order[i] = order[j];
+			order[j] = swap;
+		}
+		return new VertexOrdering(order);
+	}
+
+	/**
+	 * Breadth first search from start, appending every vertex it reaches
+	 * to queue from tail on. If scratch is not null, each vertex's
+	 * unvisited neighbors are queued lowest degree first, ties broken by
+	 * id. Returns the new tail.
+	 */
+	private static int search(CSRGraph graph, int start, boolean[] visited,
+			int[] queue, int tail, long[] scratch) {
+		int head = tail;
+		visited[start] = true;
+		queue[tail++] = start;
+		while (head < tail) {
+			int u = queue[head++];
+			if (scratch == null) {
+				for (int e = graph.edgesBegin(u); e < graph.edgesEnd(u); e++) {
+					int v = graph.target(e);
+					if (!visited[v]) {
+						visited[v] = true;
+						queue[tail++] = v;
+					}
+				}
+				continue;
+			}
+			int found = 0;
+			for (int e = graph.edgesBegin(u); e < graph.edgesEnd(u); e++) {
+				int v = graph.target(e);
+				if (!visited[v]) {
+					visited[v] = true;
+					if (found == scratch.length) {
+						scratch = Arrays.copyOf(scratch, found * 2);
+					}
+					scratch[found++] = ((long) graph.degree(v) << 32) | v;
+				}
+			}
+			Arrays.sort(scratch, 0, found);
+			for (int i = 0; i < found; i++) {
+				queue[tail++] = (int) scratch[i];
+			}
+		}
+		return tail;
+	}
+
+	//———————————————————————————————————————————————————————————
+
+	/**
+	 * Returns the number of vertices the ordering covers.
+	 * @return int
+	 */
+	public int size() { return oldIds.length; }
+
+	/**
+	 * Returns the new id of the vertex with the given original id.
+	 * @param oldId int
+	 * @return int
+	 */
+	public int toNew(int oldId) { return newIds[oldId]; }
+
+	/**
+	 * Returns the original id of the vertex with the given new id.
+	 * @param newId int
+	 * @return int
+	 */
+	public int toOld(int newId) { return oldIds[newId]; }
+
+	/**
+	 * Returns a copy of the old to new mapping, indexed by original id.
+	 * @return int array
+	 */
+	public int[] getNewIds() { return newIds.clone(); }
+
+	/**
+	 * Returns a copy of the new to old mapping, indexed by new id.
+	 * @return int array
+	 */
+	public int[] getOldIds() { return oldIds.clone(); }
+
+	/**
+	 * Translates a list of vertices in new ids, such as a traversal order
+	 * of the relabeled graph, back to original ids. The array is changed
+	 * in place and returned.
+	 * @param vertices int array of new ids
+	 * @return the same array, holding original ids
+	 */
+	public int[] toOld(int[] vertices) {
+		for (int i = 0; i < vertices.length; i++) {
+			vertices[i] = oldIds[vertices[i]];
+		}
+		return vertices;
+	}
+
+	/**
+	 * Rearranges a per-vertex array of the relabeled graph, such as the
+	 * component labels of each vertex, so it is indexed by original id.
+	 * @param values int array indexed by new id
+	 * @return new int array indexed by original id
+	 */
+	public int[] toOldLabels(int[] values) {
+		int[] result = new int[values.length];
+		for (int v = 0; v < values.length; v++) {
+			result[oldIds[v]] = values[v];
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the graph with every vertex renumbered by this ordering. Each
+	 * vertex's neighbors keep their order, so any traversal of the new
+	 * graph visits the same vertices, in the same order, as one of the
+	 * original graph from the same (translated) start. Weights, if any,
+	 * move with their edges.
+	 * @param graph CSRGraph with size() vertices
+	 * @return CSRGraph
+	 */
+	public CSRGraph apply(CSRGraph graph) {
+		int numVertices = graph.vertexCount();
+		if (numVertices != oldIds.length) {
+			throw new IllegalArgumentException("Ordering is for " + oldIds.length
+					+ " vertices, graph has " + numVertices);
+		}
+		int[] offsets = new int[numVertices + 1];
+		for (int v = 0; v < numVertices; v++) {
+			offsets[v + 1] = offsets[v] + graph.degree(oldIds[v]);
+		}
+		int[] targets = new int[offsets[numVertices]];
+		int[] weights = graph.hasWeights() ? new int[targets.length] : null;
+		for (int v = 0; v < numVertices; v++) {
+			int slot = offsets[v];
+			int u = oldIds[v];
+			for (int e = graph.edgesBegin(u); e < graph.edgesEnd(u); e++, slot++) {
+				targets[slot] = newIds[graph.target(e)];
+				if (weights != null) {
+					weights[slot] = graph.weight(e);
+				}
+			}
+		}
+		return new CSRGraph(offsets, targets, weights);
+	}
+
+}
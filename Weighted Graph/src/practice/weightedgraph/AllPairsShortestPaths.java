@@ -0,0 +1,501 @@
+package practice.weightedgraph;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+
+/**
+ * The shortest distance between every pair of vertices of a WeightedGraph,
+ * computed once with a cache-blocked, parallel Floyd-Warshall. Calling
+ * WeightedGraph.BellmanFord() from every source takes O(V&sup2;&middot;E) time;
+ * Floyd-Warshall takes O(V&sup3;) however many edges there are, and unlike
+ * Dijkstra it allows negative edge weights.
+ * <p>
+ * The distances are kept in one flat V&times;V int matrix, split into
+ * TILE&times;TILE tiles. Phase k of the algorithm allows paths through the
+ * vertices of tile row k, in three steps: the diagonal tile (k, k) on its
+ * own; then every other tile of row k and column k, in parallel, since each
+ * only needs itself and tile (k, k); then every remaining tile in parallel,
+ * since tile (i, j) only needs tiles (i, k) and (k, j). Tiles are copied
+ * into small local int arrays while they are worked on, so the inner loops
+ * stay in cache. Each task loads every tile it works on into the same
+ * arrays, and the tiles of row k are loaded once per phase, then read by
+ * every task of the last step.
+ * <p>
+ * The next hop of every shortest path can also be kept, in a second
+ * matrix, so that paths can be rebuilt. Matrices too large for the heap can
+ * be kept in memory-mapped files instead, which the operating system pages
+ * to and from disk as the tiles are used. A file is mapped in segments of
+ * 1 GB, since one mapping cannot exceed 2 GB.
+ *
+ * @author sarablinn
+ *
+ */
+public class AllPairsShortestPaths {
+
+	private static final int TILE = 64;
+	// "no path" marker, small enough that adding two distances cannot overflow
+	private static final int UNREACHABLE = Integer.MAX_VALUE / 2;
+	// marks pairs joined through a negative cycle, which have no shortest path
+	private static final int UNBOUNDED = -UNREACHABLE;
+
+	private final GraphSnapshot graph;
+	private final int numVertices;
+	// the matrix dimension: numVertices rounded up to whole tiles
+	private final int stride;
+	private final int numTiles;
+	private final Matrix dist;
+	private final Matrix next;
+	private final boolean spilled;
+	private final boolean negativeCycle;
+
+	/**
+	 * Computes all shortest distances and next hops on the common
+	 * ForkJoinPool, keeping both matrices on the heap.
+	 * @param graph WeightedGraph
+	 */
+	public AllPairsShortestPaths(WeightedGraph graph) {
+		this.graph = new GraphSnapshot(graph);
+		this.numVertices = this.graph.size();
+		this.numTiles = (numVertices + TILE - 1) / TILE;
+		this.stride = numTiles * TILE;
+		checkRange();
+		this.dist = new Matrix(matrixSize());
+		this.next = new Matrix(matrixSize());
+		this.spilled = false;
+		this.negativeCycle = run(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Computes all shortest distances, and optionally next hops, on the
+	 * given pool. If the matrices would take more than a quarter of the
+	 * maximum heap size, they are kept in memory-mapped files in
+	 * spillDirectory. The files are deleted as soon as they are mapped,
+	 * so nothing is left behind.
+	 * @param graph WeightedGraph
+	 * @param nextHops boolean true to keep the next hops that shortestPath()
+	 * needs
+	 * @param spillDirectory Path of a directory for the files, or null to
+	 * always keep the matrices on the heap
+	 * @param pool ForkJoinPool
+	 * @throws IOException if the files cannot be created
+	 */
+	public AllPairsShortestPaths(WeightedGraph graph, boolean nextHops, Path spillDirectory,
+			ForkJoinPool pool) throws IOException {
+		this.graph = new GraphSnapshot(graph);
+		this.numVertices = this.graph.size();
+		this.numTiles = (numVertices + TILE - 1) / TILE;
+		this.stride = numTiles * TILE;
+		checkRange();
+		long bytes = 4L * matrixSize() * (nextHops ? 2 : 1);
+		this.spilled = spillDirectory != null && bytes > Runtime.getRuntime().maxMemory() / 4;
+		this.dist = spilled ? Matrix.map(spillDirectory, matrixSize()) : new Matrix(matrixSize());
+		this.next = !nextHops ? null
+				: spilled ? Matrix.map(spillDirectory, matrixSize()) : new Matrix(matrixSize());
+		this.negativeCycle = run(pool);
+	}
+
+	private int matrixSize() { return stride * stride; }
+
+	/**
+	 * Throws if the matrix cannot be indexed with an int, or if a shortest
+	 * path could be long enough to be mistaken for UNREACHABLE.
+	 */
+	private void checkRange() {
+		if ((long) stride * stride > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException(
+					"Too many vertices for an all-pairs matrix: " + numVertices);
+		}
+		long maxWeight = 0;
+		for (int w : graph.weights) {
+			maxWeight = Math.max(maxWeight, Math.abs((long) w));
+		}
+		if (maxWeight * Math.max(0, numVertices - 1) >= UNREACHABLE) {
+			throw new IllegalArgumentException(
+					"Path weights could exceed " + UNREACHABLE + "; use Dijkstra or BellmanFord().");
+		}
+	}
+
+	/**
+	 * Returns the number of vertices.
+	 * @return int
+	 */
+	public int size() { return numVertices; }
+
+	/**
+	 * Returns true if the matrices were kept in memory-mapped files.
+	 * @return boolean
+	 */
+	public boolean isSpilled() { return spilled; }
+
+	/**
+	 * Returns true if the graph has a cycle of negative total weight.
+	 * Pairs joined by a path through such a cycle have no shortest path.
+	 * @return boolean
+	 */
+	public boolean hasNegativeCycle() { return negativeCycle; }
+
+	/**
+	 * Returns the shortest distance from the Vertex named source to the
+	 * Vertex named target: Long.MAX_VALUE if there is no path, and
+	 * Long.MIN_VALUE if a path runs through a negative cycle. Throws
+	 * IllegalArgumentException if the graph does not contain either one.
+	 * @param source String
+	 * @param target String
+	 * @return long
+	 */
+	public long distance(String source, String target) {
+		int d = dist.get(index(source) * stride + index(target));
+		return d == UNREACHABLE ? Dijkstra.INFINITY : d == UNBOUNDED ? Long.MIN_VALUE : d;
+	}
+
+	/**
+	 * Returns the shortest path from the Vertex named source to the Vertex
+	 * named target, or null if the graph contains neither. Throws
+	 * IllegalStateException if next hops were not kept, or if the path runs
+	 * through a negative cycle. getSettled() is 0, as nothing is searched.
+	 * @param source String
+	 * @param target String
+	 * @return ShortestPath
+	 */
+	public ShortestPath shortestPath(String source, String target) {
+		int s = graph.indexOf(source);
+		int t = graph.indexOf(target);
+		if (s < 0 || t < 0) {
+			System.out.println("Graph does not contain " + (s < 0 ? source : target) + ".");
+			return null;
+		}
+		if (next == null) {
+			throw new IllegalStateException("Next hops were not kept.");
+		}
+		int d = dist.get(s * stride + t);
+		if (d == UNBOUNDED) {
+			throw new IllegalStateException(
+					"The path from " + source + " to " + target + " runs through a negative cycle.");
+		}
+		List<String> path = new ArrayList<>();
+		if (d != UNREACHABLE) {
+			for (int v = s; v != t; v = next.get(v * stride + t)) {
+				path.add(graph.vertices[v].getName());
+			}
+			path.add(graph.vertices[t].getName());
+		}
+		return new ShortestPath(d == UNREACHABLE ? Dijkstra.INFINITY : d, path, 0);
+	}
+
+	private int index(String name) {
+		int i = graph.indexOf(name);
+		if (i < 0) {
+			throw new IllegalArgumentException("Graph does not contain " + name + ".");
+		}
+		return i;
+	}
+
+	//———————————————————————————————————————————————————————————
+
+	/**
+	 * Fills the matrices from the edges, runs every phase, and returns
+	 * true if a negative cycle was found.
+	 */
+	private boolean run(ForkJoinPool pool) {
+		for (int i = 0; i < stride; i++) {
+			for (int j = 0; j < stride; j++) {
+				dist.put(i * stride + j, i == j ? 0 : UNREACHABLE);
+				if (next != null) {
+					next.put(i * stride + j, i == j ? i : -1);
+				}
+			}
+		}
+		for (int u = 0; u < numVertices; u++) {
+			for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+				int v = graph.targets[e];
+				int w = graph.weights[e];
+				// of several edges from u to v, keep the lightest
+				if (w < dist.get(u * stride + v)) {
+					dist.put(u * stride + v, w);
+					if (next != null) {
+						next.put(u * stride + v, v);
+					}
+				}
+			}
+		}
+		Tile[] row = new Tile[numTiles];
+		for (int j = 0; j < numTiles; j++) {
+			row[j] = new Tile();
+		}
+		for (int k = 0; k < numTiles; k++) {
+			phase(k, row, pool);
+		}
+		return markNegativeCycles();
+	}
+
+	/**
+	 * Allows paths through the vertices of tile k. row holds the buffers
+	 * that tile row k is loaded into.
+	 */
+	private void phase(int k, Tile[] row, ForkJoinPool pool) {
+		Tile diagonal = row[k].load(k, k);
+		diagonal.relax(diagonal, diagonal);
+		diagonal.store();
+
+		// tiles (k, j) and (i, k): t < numTiles is row k, the rest column k
+		invoke(pool, 2 * numTiles, (lo, hi) -> {
+			Tile column = new Tile();
+			for (int t = lo; t < hi; t++) {
+				int other = t % numTiles;
+				if (other == k) {
+					continue;
+				}
+				if (t < numTiles) {
+					Tile tile = row[other].load(k, other);
+					tile.relax(diagonal, tile);
+					tile.store();
+				}
+				else {
+					column.load(other, k);
+					column.relax(column, diagonal);
+					column.store();
+				}
+			}
+		});
+
+		// one task per range of tile rows, which reads each tile (i, k) once
+		invoke(pool, numTiles, (lo, hi) -> {
+			Tile column = new Tile();
+			Tile tile = new Tile();
+			for (int i = lo; i < hi; i++) {
+				if (i == k) {
+					continue;
+				}
+				column.load(i, k);
+				for (int j = 0; j < numTiles; j++) {
+					if (j != k) {
+						tile.load(i, j);
+						tile.relax(column, row[j]);
+						tile.store();
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Marks every pair (i, j) with a path through a vertex on a negative
+	 * cycle as UNBOUNDED. Returns true if there was any such vertex.
+	 */
+	private boolean markNegativeCycles() {
+		boolean found = false;
+		for (int k = 0; k < numVertices; k++) {
+			if (dist.get(k * stride + k) >= 0) {
+				continue;
+			}
+			found = true;
+			for (int i = 0; i < numVertices; i++) {
+				if (dist.get(i * stride + k) == UNREACHABLE) {
+					continue;
+				}
+				for (int j = 0; j < numVertices; j++) {
+					if (dist.get(k * stride + j) != UNREACHABLE) {
+						dist.put(i * stride + j, UNBOUNDED);
+					}
+				}
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * A copy of one TILE&times;TILE block of the distance matrix, and of the
+	 * next hop matrix if there is one. load() copies a block in and store()
+	 * copies it back, so one Tile can work on many blocks in turn.
+	 */
+	private class Tile {
+		private int offset;
+		private final int[] d = new int[TILE * TILE];
+		private final int[] n = next == null ? null : new int[TILE * TILE];
+
+		/**
+		 * Copies tile (i, j) of the matrices into this Tile, and returns it.
+		 */
+		Tile load(int i, int j) {
+			offset = i * TILE * stride + j * TILE;
+			for (int r = 0; r < TILE; r++) {
+				dist.getRow(offset + r * stride, d, r * TILE);
+				if (n != null) {
+					next.getRow(offset + r * stride, n, r * TILE);
+				}
+			}
+			return this;
+		}
+
+		/**
+		 * For every k of the tile's phase, in order, shortens d[i][j] to
+		 * a[i][k] + b[k][j] where that is shorter; the new next hop from i
+		 * is then a's next hop from i towards k. a or b may be this tile.
+		 */
+		void relax(Tile a, Tile b) {
+			for (int k = 0; k < TILE; k++) {
+				for (int i = 0; i < TILE; i++) {
+					int ik = a.d[i * TILE + k];
+					if (ik == UNREACHABLE) {
+						continue;
+					}
+					int hop = n == null ? 0 : a.n[i * TILE + k];
+					for (int j = 0, ij = i * TILE, kj = k * TILE; j < TILE; j++, ij++, kj++) {
+						int bkj = b.d[kj];
+						if (bkj != UNREACHABLE && ik + bkj < d[ij]) {
+							// a negative cycle can push sums down without limit
+							d[ij] = Math.max(ik + bkj, UNBOUNDED);
+							if (n != null) {
+								n[ij] = hop;
+							}
+						}
+					}
+				}
+			}
+		}
+
+		void store() {
+			for (int r = 0; r < TILE; r++) {
+				dist.putRow(offset + r * stride, d, r * TILE);
+				if (n != null) {
+					next.putRow(offset + r * stride, n, r * TILE);
+				}
+			}
+		}
+	}
+
+	/**
+	 * A stride&times;stride int matrix, on the heap or in a mapped file. A
+	 * single MappedByteBuffer cannot exceed 2 GB, so the matrix is kept in
+	 * segments of 2^28 ints (1 GB), as GraphFile.MappedInts does. A tile
+	 * row is TILE ints starting at a multiple of TILE, so it never crosses
+	 * from one segment into the next.
+	 */
+	private static final class Matrix {
+		private static final int SHIFT = 28;
+		private static final int MASK = (1 << SHIFT) - 1;
+		private final IntBuffer[] segments;
+
+		Matrix(int ints) {
+			segments = new IntBuffer[segmentCount(ints)];
+			for (int i = 0; i < segments.length; i++) {
+				segments[i] = IntBuffer.allocate(segmentLength(ints, i));
+			}
+		}
+
+		private Matrix(IntBuffer[] segments) {
+			this.segments = segments;
+		}
+
+		/**
+		 * Returns a matrix of the given number of ints kept in a new file
+		 * in directory. The file is deleted as soon as it is mapped.
+		 */
+		static Matrix map(Path directory, int ints) throws IOException {
+			Path file = Files.createTempFile(directory, "apsp", ".matrix");
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ,
+					StandardOpenOption.WRITE)) {
+				IntBuffer[] segments = new IntBuffer[segmentCount(ints)];
+				for (int i = 0; i < segments.length; i++) {
+					segments[i] = channel.map(MapMode.READ_WRITE, (long) i << (SHIFT + 2),
+							4L * segmentLength(ints, i)).order(ByteOrder.nativeOrder()).asIntBuffer();
+				}
+				return new Matrix(segments);
+			}
+			finally {
+				try {
+					Files.deleteIfExists(file);
+				}
+				catch (IOException e) {
+					// some systems cannot delete a mapped file
+					file.toFile().deleteOnExit();
+				}
+			}
+		}
+
+		private static int segmentCount(int ints) {
+			return (int) (((long) ints + MASK) >>> SHIFT);
+		}
+
+		private static int segmentLength(int ints, int i) {
+			return (int) Math.min(1L << SHIFT, ints - ((long) i << SHIFT));
+		}
+
+		int get(int index) {
+			return segments[index >>> SHIFT].get(index & MASK);
+		}
+
+		void put(int index, int value) {
+			segments[index >>> SHIFT].put(index & MASK, value);
+		}
+
+		/**
+		 * Copies the TILE ints from index into row, at offset.
+		 */
+		void getRow(int index, int[] row, int offset) {
+			IntBuffer segment = segments[index >>> SHIFT].duplicate();
+			segment.position(index & MASK);
+			segment.get(row, offset, TILE);
+		}
+
+		/**
+		 * Copies TILE ints from row, at offset, to index.
+		 */
+		void putRow(int index, int[] row, int offset) {
+			IntBuffer segment = segments[index >>> SHIFT].duplicate();
+			segment.position(index & MASK);
+			segment.put(row, offset, TILE);
+		}
+	}
+
+	/**
+	 * Runs body over [0, count) across the pool, in ranges [lo, hi) of
+	 * about count / (4 * parallelism), so that idle workers can still
+	 * steal, while each range reuses its tile buffers.
+	 */
+	private static void invoke(ForkJoinPool pool, int count, TileBody body) {
+		int grain = Math.max(1, count / (4 * pool.getParallelism()));
+		pool.invoke(new TileTask(0, count, grain, body));
+	}
+
+	private interface TileBody {
+		void run(int lo, int hi);
+	}
+
+	private static class TileTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int lo, hi, grain;
+		private final TileBody body;
+
+		TileTask(int lo, int hi, int grain, TileBody body) {
+			this.lo = lo;
+			this.hi = hi;
+			this.grain = grain;
+			this.body = body;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo <= grain) {
+				if (hi > lo) {
+					body.run(lo, hi);
+				}
+				return;
+			}
+			int mid = (lo + hi) >>> 1;
+			invokeAll(new TileTask(lo, mid, grain, body), new TileTask(mid, hi, grain, body));
+		}
+	}
+
+}
@@ -0,0 +1,175 @@
+package practice.weightedgraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import practice.weightedgraph.WeightedGraph.Vertex;
+
+
+/**
+ * Bellman-Ford shortest paths over a WeightedGraph, for graphs with
+ * negative edge weights, where Dijkstra cannot be used. Like
+ * WeightedGraph.BellmanFord(), it relaxes edges until no distance drops,
+ * but it reads them from the primitive arrays of a GraphSnapshot, and only
+ * relaxes the edges of vertices whose distance dropped since they were
+ * last relaxed: such vertices wait in a queue, so a round that changes
+ * little costs little.
+ * <p>
+ * A vertex whose distance drops numVertices times lies on or behind a
+ * cycle of negative total weight, which has no shortest path; the search
+ * then throws IllegalStateException. As with Dijkstra, the graph is copied
+ * when the BellmanFord is created and the arrays are reused by every
+ * query, so a BellmanFord should only be used by one thread at a time.
+ *
+ * @author sarablinn
+ *
+ */
+public class BellmanFord {
+
+	private static final long INFINITY = Dijkstra.INFINITY;
+
+	private final GraphSnapshot graph;
+	private final long[] dist;
+	private final int[] pred;
+	// circular queue of vertices to relax; a vertex is queued at most once
+	// at a time, so numVertices slots suffice
+	private final int[] queue;
+	private final boolean[] queued;
+	private final int[] timesQueued;
+
+	/**
+	 * Prepares Bellman-Ford queries over the current vertices and edges of
+	 * the given graph.
+	 * @param graph WeightedGraph
+	 */
+	public BellmanFord(WeightedGraph graph) {
+		this(new GraphSnapshot(graph));
+	}
+
+	BellmanFord(GraphSnapshot graph) {
+		this.graph = graph;
+		int numVertices = graph.size();
+		dist = new long[numVertices];
+		pred = new int[numVertices];
+		queue = new int[numVertices];
+		queued = new boolean[numVertices];
+		timesQueued = new int[numVertices];
+	}
+
+	/**
+	 * Returns the shortest path from the Vertex named source to the Vertex
+	 * named target, or null if the graph contains neither.
+	 * @param source String
+	 * @param target String
+	 * @return ShortestPath
+	 * @throws IllegalStateException if a negative weight cycle can be
+	 * reached from source
+	 */
+	public ShortestPath shortestPath(String source, String target) {
+		int s = graph.indexOf(source);
+		int t = graph.indexOf(target);
+		if (s < 0 || t < 0) {
+			System.out.println("Graph does not contain " + (s < 0 ? source : target) + ".");
+			return null;
+		}
+		search(s);
+		List<String> path = new ArrayList<>();
+		if (dist[t] != INFINITY) {
+			for (int v = t; v >= 0; v = pred[v]) {
+				path.add(graph.vertices[v].getName());
+			}
+			Collections.reverse(path);
+		}
+		return new ShortestPath(dist[t], path, 0);
+	}
+
+	/**
+	 * Returns the shortest path from source to target.
+	 * @param source Vertex
+	 * @param target Vertex
+	 * @return ShortestPath
+	 * @throws IllegalStateException if a negative weight cycle can be
+	 * reached from source
+	 */
+	public ShortestPath shortestPath(Vertex source, Vertex target) {
+		return shortestPath(source.getName(), target.getName());
+	}
+
+	/**
+	 * Returns the distance from the Vertex named source to every vertex, in
+	 * getVIndex() order, with Long.MAX_VALUE for unreachable vertices; or
+	 * null if the graph does not contain source.
+	 * @param source String
+	 * @return long array
+	 * @throws IllegalStateException if a negative weight cycle can be
+	 * reached from source
+	 */
+	public long[] distances(String source) {
+		int s = graph.indexOf(source);
+		if (s < 0) {
+			System.out.println("Graph does not contain " + source + ".");
+			return null;
+		}
+		search(s);
+		return dist.clone();
+	}
+
+	/**
+	 * Runs the search from vertex s. Afterwards dist and pred hold the
+	 * results.
+	 * @param s int source vertex
+	 * @throws IllegalStateException if a negative weight cycle can be
+	 * reached from s
+	 */
+	void search(int s) {
+		int numVertices = graph.size();
+		Arrays.fill(dist, INFINITY);
+		Arrays.fill(pred, -1);
+		Arrays.fill(queued, false);
+		Arrays.fill(timesQueued, 0);
+		dist[s] = 0;
+		int head = 0;
+		int size = 1;
+		queue[0] = s;
+		queued[s] = true;
+		while (size > 0) {
+			int u = queue[head];
+			head = head + 1 == numVertices ? 0 : head + 1;
+			size--;
+			queued[u] = false;
+			long du = dist[u];
+			for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+				int v = graph.targets[e];
+				long dv = du + graph.weights[e];
+				if (dv < dist[v]) {
+					dist[v] = dv;
+					pred[v] = u;
+					if (!queued[v]) {
+						if (++timesQueued[v] >= numVertices) {
+							throw new IllegalStateException("Graph contains a negative weight cycle.");
+						}
+						int tail = head + size;
+						queue[tail >= numVertices ? tail - numVertices : tail] = v;
+						size++;
+						queued[v] = true;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the distance array filled in by the last search. Shared with
+	 * the next search, so copy it to keep it.
+	 */
+	long[] lastDistances() { return dist; }
+
+	/**
+	 * Returns the predecessor array filled in by the last search. Shared
+	 * with the next search, so copy it to keep it.
+	 */
+	int[] lastPredecessors() { return pred; }
+
+}
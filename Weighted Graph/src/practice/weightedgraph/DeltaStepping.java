@@ -0,0 +1,300 @@
+package practice.weightedgraph;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * Parallel single-source shortest paths over a WeightedGraph using
+ * Meyer and Sanders' delta-stepping. Vertices wait in buckets of width
+ * delta by tentative distance. The lowest non-empty bucket is settled by
+ * relaxing its <i>light</i> edges (weight &lt;= delta) until no vertex falls
+ * back into it, then relaxing the <i>heavy</i> edges of every vertex it held
+ * once. Each relaxation phase is split across a ForkJoinPool, and tentative
+ * distances are lowered with an atomic compare-and-set minimum, so workers
+ * never lock.
+ * <p>
+ * A small delta behaves like Dijkstra (little wasted work, little
+ * parallelism); a large delta behaves like Bellman-Ford. Delta-stepping
+ * needs non-negative weights: if the graph has a negative edge weight,
+ * BellmanFord is run instead, and an IllegalStateException is thrown if a
+ * negative weight cycle can be reached from the source.
+ *
+ * @author sarablinn
+ *
+ */
+public class DeltaStepping {
+
+	private static final int GRAIN = 256;
+
+	/**
+	 * Returns the distance from the Vertex named source to every vertex,
+	 * in getVIndex() order, with Long.MAX_VALUE for unreachable vertices;
+	 * or null if the graph does not contain source. Uses the common
+	 * ForkJoinPool and a delta picked from the graph's weights and degree.
+	 * @param graph WeightedGraph
+	 * @param source String
+	 * @return long array
+	 * @throws IllegalStateException if the graph has negative edge weights
+	 * and a negative weight cycle can be reached from source
+	 */
+	public static long[] distances(WeightedGraph graph, String source) {
+		return distances(graph, source, 0, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Returns the distance from the Vertex named source to every vertex,
+	 * in getVIndex() order, with Long.MAX_VALUE for unreachable vertices;
+	 * or null if the graph does not contain source.
+	 * @param graph WeightedGraph
+	 * @param source String
+	 * @param delta int bucket width, or 0 to pick one from the graph
+	 * @param pool ForkJoinPool
+	 * @return long array
+	 * @throws IllegalStateException if the graph has negative edge weights
+	 * and a negative weight cycle can be reached from source
+	 */
+	public static long[] distances(WeightedGraph graph, String source, int delta,
+			ForkJoinPool pool) {
+		GraphSnapshot snapshot = new GraphSnapshot(graph);
+		int s = snapshot.indexOf(source);
+		if (s < 0) {
+			System.out.println("Graph does not contain " + source + ".");
+			return null;
+		}
+		if (snapshot.hasNegativeWeight) {
+			BellmanFord bellmanFord = new BellmanFord(snapshot);
+			bellmanFord.search(s);
+			return bellmanFord.lastDistances();
+		}
+		return new DeltaStepping(snapshot, delta > 0 ? delta : pickDelta(snapshot), pool).run(s);
+	}
+
+	/**
+	 * Picks max weight / average degree, a common starting point: about
+	 * one bucket's worth of light edges leaves each vertex.
+	 */
+	private static int pickDelta(GraphSnapshot graph) {
+		int maxWeight = 1;
+		for (int w : graph.weights) {
+			maxWeight = Math.max(maxWeight, w);
+		}
+		double averageDegree = graph.size() == 0 ? 1 : (double) graph.targets.length / graph.size();
+		return (int) Math.max(1, maxWeight / Math.max(1, averageDegree));
+	}
+
+	//———————————————————————————————————————————————————————————
+
+	private final int numVertices;
+	private final int delta;
+	private final ForkJoinPool pool;
+	private final int[] offsets;
+	// each vertex's edges reordered so the light ones come first:
+	// light edges of u are [offsets[u], lightEnd[u]), heavy ones follow
+	private final int[] lightEnd;
+	private final int[] targets;
+	private final int[] weights;
+	private final AtomicLongArray dist;
+
+	private DeltaStepping(GraphSnapshot graph, int delta, ForkJoinPool pool) {
+		this.numVertices = graph.size();
+		this.delta = delta;
+		this.pool = pool;
+		this.offsets = graph.offsets;
+		this.lightEnd = new int[numVertices];
+		this.targets = new int[graph.targets.length];
+		this.weights = new int[graph.weights.length];
+		for (int u = 0; u < numVertices; u++) {
+			int light = offsets[u];
+			int heavy = offsets[u + 1];
+			for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+				int slot = graph.weights[e] <= delta ? light++ : --heavy;
+				targets[slot] = graph.targets[e];
+				weights[slot] = graph.weights[e];
+			}
+			lightEnd[u] = light;
+		}
+		this.dist = new AtomicLongArray(numVertices);
+	}
+
+	private long[] run(int source) {
+		for (int v = 0; v < numVertices; v++) {
+			dist.set(v, Dijkstra.INFINITY);
+		}
+		dist.set(source, 0);
+		TreeMap<Long, IntBag> buckets = new TreeMap<>();
+		buckets.put(0L, new IntBag(new int[] { source }, 1));
+		// inBucket[v] == b + 1 while v already waits in the frontier of bucket b;
+		// settledIn[v] == b + 1 once v is among the vertices bucket b settled
+		long[] inBucket = new long[numVertices];
+		long[] settledIn = new long[numVertices];
+
+		while (!buckets.isEmpty()) {
+			Map.Entry<Long, IntBag> lowest = buckets.pollFirstEntry();
+			long b = lowest.getKey();
+			IntBag settled = new IntBag(new int[16], 0);
+			IntBag pending = lowest.getValue();
+			while (pending != null && pending.size > 0) {
+				int[] frontier = current(pending, b, inBucket);
+				for (int v : frontier) {
+					if (settledIn[v] != b + 1) {
+						settledIn[v] = b + 1;
+						settled.add(v);
+					}
+				}
+				IntBag updated = relax(frontier, true);
+				pending = distribute(updated, b, buckets);
+			}
+			IntBag updated = relax(Arrays.copyOf(settled.items, settled.size), false);
+			distribute(updated, b, buckets);
+		}
+		long[] result = new long[numVertices];
+		for (int v = 0; v < numVertices; v++) {
+			result[v] = dist.get(v);
+		}
+		return result;
+	}
+
+	/**
+	 * Keeps the entries of a bucket that still belong to bucket b, once
+	 * each: entries whose distance has since dropped into a lower bucket
+	 * were already handled there.
+	 */
+	private int[] current(IntBag bag, long b, long[] inBucket) {
+		int[] frontier = new int[bag.size];
+		int size = 0;
+		for (int i = 0; i < bag.size; i++) {
+			int v = bag.items[i];
+			if (dist.get(v) / delta == b && inBucket[v] != b + 1) {
+				inBucket[v] = b + 1;
+				frontier[size++] = v;
+			}
+		}
+		// a vertex may come back to the same bucket after a light relaxation
+		for (int i = 0; i < size; i++) {
+			inBucket[frontier[i]] = 0;
+		}
+		return Arrays.copyOf(frontier, size);
+	}
+
+	/**
+	 * Puts every updated vertex in the bucket of its new distance, and
+	 * returns the ones that land back in bucket b.
+	 */
+	private IntBag distribute(IntBag updated, long b, TreeMap<Long, IntBag> buckets) {
+		IntBag again = null;
+		for (int i = 0; i < updated.size; i++) {
+			int v = updated.items[i];
+			long bucket = dist.get(v) / delta;
+			if (bucket == b) {
+				if (again == null) {
+					again = new IntBag(new int[16], 0);
+				}
+				again.add(v);
+			}
+			else {
+				buckets.computeIfAbsent(bucket, k -> new IntBag(new int[16], 0)).add(v);
+			}
+		}
+		return again;
+	}
+
+	/**
+	 * Relaxes the light (or heavy) edges of every frontier vertex in
+	 * parallel, and returns the vertices whose distance was lowered.
+	 */
+	private IntBag relax(int[] frontier, boolean light) {
+		if (frontier.length <= GRAIN) {
+			return new RelaxTask(frontier, 0, frontier.length, light).compute();
+		}
+		return pool.invoke(new RelaxTask(frontier, 0, frontier.length, light));
+	}
+
+	private class RelaxTask extends RecursiveTask<IntBag> {
+		private static final long serialVersionUID = 1L;
+		private final int[] frontier;
+		private final int lo, hi;
+		private final boolean light;
+
+		RelaxTask(int[] frontier, int lo, int hi, boolean light) {
+			this.frontier = frontier;
+			this.lo = lo;
+			this.hi = hi;
+			this.light = light;
+		}
+
+		@Override
+		protected IntBag compute() {
+			if (hi - lo > GRAIN) {
+				int mid = (lo + hi) >>> 1;
+				RelaxTask left = new RelaxTask(frontier, lo, mid, light);
+				left.fork();
+				IntBag right = new RelaxTask(frontier, mid, hi, light).compute();
+				IntBag result = left.join();
+				result.addAll(right.items, right.size);
+				return result;
+			}
+			IntBag updated = new IntBag(new int[16], 0);
+			for (int i = lo; i < hi; i++) {
+				int u = frontier[i];
+				long du = dist.get(u);
+				int begin = light ? offsets[u] : lightEnd[u];
+				int end = light ? lightEnd[u] : offsets[u + 1];
+				for (int e = begin; e < end; e++) {
+					if (lowerTo(targets[e], du + weights[e])) {
+						updated.add(targets[e]);
+					}
+				}
+			}
+			return updated;
+		}
+	}
+
+	/**
+	 * Atomically sets dist[v] to the minimum of its value and d. Returns
+	 * true if d was lower.
+	 */
+	private boolean lowerTo(int v, long d) {
+		long current = dist.get(v);
+		while (d < current) {
+			if (dist.compareAndSet(v, current, d)) {
+				return true;
+			}
+			current = dist.get(v);
+		}
+		return false;
+	}
+
+	/**
+	 * A growable int array.
+	 */
+	private static class IntBag {
+		private int[] items;
+		private int size;
+
+		IntBag(int[] items, int size) {
+			this.items = items;
+			this.size = size;
+		}
+
+		void add(int v) {
+			if (size == items.length) {
+				items = Arrays.copyOf(items, size * 2);
+			}
+			items[size++] = v;
+		}
+
+		void addAll(int[] other, int count) {
+			if (size + count > items.length) {
+				items = Arrays.copyOf(items, Math.max(size + count, items.length * 2));
+			}
+			System.arraycopy(other, 0, items, size, count);
+			size += count;
+		}
+	}
+
+}
@@ -0,0 +1,189 @@
+package practice.weightedgraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import practice.weightedgraph.WeightedGraph.Vertex;
+
+
+/**
+ * Dijkstra's shortest path algorithm over a WeightedGraph with
+ * non-negative edge weights. Where WeightedGraph.BellmanFord() takes
+ * O(V&middot;E) time, Dijkstra settles vertices in order of distance with an
+ * IndexedHeap in O(E log V), and a point-to-point query stops as soon as the
+ * target is settled.
+ * <p>
+ * The graph is copied into primitive arrays (a GraphSnapshot) when the
+ * Dijkstra is created, so build a new one after adding edges to the graph.
+ * The distance, predecessor and heap arrays are also allocated once and
+ * reused: each query only resets the entries it touched. A Dijkstra should
+ * therefore only be used by one thread at a time; create one per thread to
+ * run queries in parallel.
+ *
+ * @author sarablinn
+ *
+ */
+public class Dijkstra {
+
+	static final long INFINITY = Long.MAX_VALUE;
+
+	private final GraphSnapshot graph;
+	private final long[] dist;
+	private final int[] pred;
+	private final IndexedHeap heap;
+	// vertices whose dist/pred entries were set by the last search
+	private final int[] touched;
+	private int numTouched = 0;
+	private int settled = 0;
+
+	/**
+	 * Prepares Dijkstra queries over the current vertices and edges of the
+	 * given graph.
+	 * @param graph WeightedGraph with no negative edge weights
+	 */
+	public Dijkstra(WeightedGraph graph) {
+		this(new GraphSnapshot(graph));
+	}
+
+	Dijkstra(GraphSnapshot graph) {
+		if (graph.hasNegativeWeight) {
+			throw new IllegalArgumentException(
+					"Dijkstra requires non-negative edge weights; use BellmanFord instead.");
+		}
+		this.graph = graph;
+		int numVertices = graph.size();
+		dist = new long[numVertices];
+		pred = new int[numVertices];
+		touched = new int[numVertices];
+		heap = new IndexedHeap(numVertices);
+		Arrays.fill(dist, INFINITY);
+		Arrays.fill(pred, -1);
+	}
+
+	/**
+	 * Returns the shortest path from the Vertex named source to the Vertex
+	 * named target, or null if the graph contains neither.
+	 * @param source String
+	 * @param target String
+	 * @return ShortestPath
+	 */
+	public ShortestPath shortestPath(String source, String target) {
+		int s = graph.indexOf(source);
+		int t = graph.indexOf(target);
+		if (s < 0 || t < 0) {
+			System.out.println("Graph does not contain " + (s < 0 ? source : target) + ".");
+			return null;
+		}
+		search(s, t);
+		return toPath(t);
+	}
+
+	/**
+	 * Returns the shortest path from source to target.
+	 * @param source Vertex
+	 * @param target Vertex
+	 * @return ShortestPath
+	 */
+	public ShortestPath shortestPath(Vertex source, Vertex target) {
+		return shortestPath(source.getName(), target.getName());
+	}
+
+	/**
+	 * Returns the distance from the Vertex named source to every vertex, in
+	 * getVIndex() order, with Long.MAX_VALUE for unreachable vertices; or
+	 * null if the graph does not contain source.
+	 * @param source String
+	 * @return long array
+	 */
+	public long[] distances(String source) {
+		int s = graph.indexOf(source);
+		if (s < 0) {
+			System.out.println("Graph does not contain " + source + ".");
+			return null;
+		}
+		search(s, -1);
+		return dist.clone();
+	}
+
+	/**
+	 * Runs the search from vertex s until vertex t is settled, or until
+	 * every reachable vertex is settled if t is -1. Afterwards dist and
+	 * pred hold the results.
+	 * @param s int source vertex
+	 * @param t int target vertex or -1
+	 */
+	void search(int s, int t) {
+		reset();
+		settled = 0;
+		touch(s, 0, -1);
+		heap.push(s, 0);
+		while (!heap.isEmpty()) {
+			int u = heap.poll();
+			settled++;
+			if (u == t) {
+				break;
+			}
+			long du = dist[u];
+			for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+				int v = graph.targets[e];
+				long dv = du + graph.weights[e];
+				if (dv < dist[v]) {
+					touch(v, dv, u);
+					heap.push(v, dv);
+				}
+			}
+		}
+		heap.clear();
+	}
+
+	/**
+	 * Returns the distance array filled in by the last search. Shared with
+	 * the next search, so copy it to keep it.
+	 */
+	long[] lastDistances() { return dist; }
+
+	/**
+	 * Returns the predecessor array filled in by the last search. Shared
+	 * with the next search, so copy it to keep it.
+	 */
+	int[] lastPredecessors() { return pred; }
+
+	/**
+	 * Returns the number of vertices settled by the last search.
+	 */
+	int lastSettled() { return settled; }
+
+	/**
+	 * Builds the ShortestPath to t from the predecessors left by the last
+	 * search.
+	 */
+	ShortestPath toPath(int t) {
+		List<String> path = new ArrayList<>();
+		if (dist[t] != INFINITY) {
+			for (int v = t; v >= 0; v = pred[v]) {
+				path.add(graph.vertices[v].getName());
+			}
+			Collections.reverse(path);
+		}
+		return new ShortestPath(dist[t], path, settled);
+	}
+
+	private void touch(int v, long d, int p) {
+		if (dist[v] == INFINITY) {
+			touched[numTouched++] = v;
+		}
+		dist[v] = d;
+		pred[v] = p;
+	}
+
+	private void reset() {
+		for (int i = 0; i < numTouched; i++) {
+			dist[touched[i]] = INFINITY;
+			pred[touched[i]] = -1;
+		}
+		numTouched = 0;
+	}
+
+}
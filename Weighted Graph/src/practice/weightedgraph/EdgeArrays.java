@@ -0,0 +1,117 @@
+package practice.weightedgraph;
+
+
+/**
+ * The layout shared by the edge stores of WeightedGraph and TreeGraph: the
+ * edges of a graph kept as parallel primitive arrays instead of one Edge
+ * object per edge. Edge e runs from vertex src[e] to vertex dst[e] with
+ * weight weight[e], and the edges leaving vertex i are e = edgesBegin(i)
+ * up to (but not including) edgesEnd(i). The edges are grouped by source
+ * vertex, so src can always be derived from the offsets with sources().
+ * <p>
+ * Each store supplies its own vertex type V, name lookup and Edge class,
+ * so indexOf(), toEdge() and the store's EdgeView are left to it.
+ *
+ * @author sarablinn
+ *
+ */
+public abstract class EdgeArrays<V> {
+
+	private final V[] vertices;
+	private final int[] offsets;
+	private final int[] src;
+	private final int[] dst;
+	private final int[] weight;
+
+	/**
+	 * Wraps the given arrays, which are not copied.
+	 * @param vertices V array, vertex i at index i
+	 * @param offsets int array of vertices.length + 1 edge offsets
+	 * @param dst int array of edge targets
+	 * @param weight int array of edge weights
+	 */
+	protected EdgeArrays(V[] vertices, int[] offsets, int[] dst, int[] weight) {
+		this.vertices = vertices;
+		this.offsets = offsets;
+		this.src = sources(offsets);
+		this.dst = dst;
+		this.weight = weight;
+	}
+
+	/**
+	 * Returns the source vertex of every edge, expanded from the offsets:
+	 * edges offsets[u] up to offsets[u + 1] leave vertex u.
+	 * @param offsets int array
+	 * @return int array
+	 */
+	public static int[] sources(int[] offsets) {
+		int numVertices = offsets.length - 1;
+		int[] src = new int[offsets[numVertices]];
+		for (int u = 0; u < numVertices; u++) {
+			for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+				src[e] = u;
+			}
+		}
+		return src;
+	}
+
+	//———————————————————————————————————————————————————————————
+
+	/**
+	 * Returns the number of vertices.
+	 * @return int
+	 */
+	public int vertexCount() { return vertices.length; }
+
+	/**
+	 * Returns the number of edges. An undirected edge is stored once in
+	 * each direction and so counts twice.
+	 * @return int
+	 */
+	public int edgeCount() { return src.length; }
+
+	/**
+	 * Returns the index of the Vertex by the input String name, or -1 if
+	 * the graph does not contain it.
+	 * @param name String
+	 * @return int
+	 */
+	public abstract int indexOf(String name);
+
+	/**
+	 * Returns the Vertex with the given index.
+	 * @param v int
+	 * @return V
+	 */
+	public V vertex(int v) { return vertices[v]; }
+
+	/**
+	 * Returns the first edge leaving vertex u.
+	 * @param u vertex index
+	 * @return int edge
+	 */
+	public int edgesBegin(int u) { return offsets[u]; }
+
+	/**
+	 * Returns the edge just past the last edge leaving vertex u.
+	 * @param u vertex index
+	 * @return int edge
+	 */
+	public int edgesEnd(int u) { return offsets[u + 1]; }
+
+	public int source(int e) { return src[e]; }
+
+	public int target(int e) { return dst[e]; }
+
+	public int weight(int e) { return weight[e]; }
+
+	/**
+	 * Returns the bytes held by the edge arrays, for comparison with the
+	 * LinkedLists of Edge objects they replace.
+	 * @return long
+	 */
+	public long edgeBytes() {
+		return 4L * (offsets.length + src.length + dst.length + weight.length);
+	}
+
+}
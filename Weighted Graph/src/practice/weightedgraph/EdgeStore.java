@@ -0,0 +1,117 @@
+package practice.weightedgraph;
+
+import practice.weightedgraph.WeightedGraph.Edge;
+import practice.weightedgraph.WeightedGraph.Vertex;
+
+
+/**
+ * The edges of a WeightedGraph kept as parallel primitive arrays instead of
+ * one Edge object per edge, in the layout of EdgeArrays. Vertex i is the
+ * i-th vertex added to the graph, matching WeightedGraph.getVIndex().
+ * <p>
+ * An Edge in a LinkedList costs an object header, two Vertex references
+ * and an int, plus a list node of three more references: 50 to 60 bytes,
+ * spread over the heap. Here an edge costs 12 bytes, and relaxing every
+ * edge in turn reads three arrays front to back.
+ * <p>
+ * Code written against WeightedGraph.Edge can still be handed an edge from
+ * the store: view(e) returns an EdgeView, an Edge whose getters read the
+ * arrays, and which can be moved to another edge with moveTo() instead of
+ * allocating one per edge. toEdge(e) returns an ordinary Edge.
+ * <p>
+ * The store is built on a GraphSnapshot and shares its vertex, offset,
+ * target and weight arrays; only src is added. Dijkstra and BellmanFord
+ * search the same arrays, and relax an edge by reading three ints instead
+ * of following the Edge and both Vertex objects.
+ * <p>
+ * Changes made to the WeightedGraph after the store was built are not
+ * seen by it.
+ *
+ * @author sarablinn
+ *
+ */
+public class EdgeStore extends EdgeArrays<Vertex> {
+
+	private final GraphSnapshot snapshot;
+
+	/**
+	 * Copies the vertices and edges of the given graph.
+	 * @param graph WeightedGraph
+	 */
+	public EdgeStore(WeightedGraph graph) {
+		this(new GraphSnapshot(graph));
+	}
+
+	EdgeStore(GraphSnapshot snapshot) {
+		super(snapshot.vertices, snapshot.offsets, snapshot.targets, snapshot.weights);
+		this.snapshot = snapshot;
+	}
+
+	//———————————————————————————————————————————————————————————
+
+	@Override
+	public int indexOf(String name) {
+		return snapshot.indexOf(name);
+	}
+
+	/**
+	 * Returns a new EdgeView of edge e.
+	 * @param e int
+	 * @return EdgeView
+	 */
+	public EdgeView view(int e) {
+		return new EdgeView(e);
+	}
+
+	/**
+	 * Returns a new, ordinary Edge with the same ends and weight as edge e.
+	 * @param e int
+	 * @return Edge
+	 */
+	public Edge toEdge(int e) {
+		return new Edge(vertex(source(e)), vertex(target(e)), weight(e));
+	}
+
+	//———————————————————————————————————————————————————————————
+
+	/**
+	 * An Edge that reads its ends and weight from the store. A view is
+	 * positioned at one edge at a time; moveTo() points it at another, so
+	 * one view can walk every edge without allocating. Not safe to share
+	 * between threads while it is being moved.
+	 */
+	public class EdgeView extends Edge {
+		private int e;
+
+		private EdgeView(int e) {
+			super(null, null, 0);
+			this.e = e;
+		}
+
+		/**
+		 * Points the view at edge e and returns it.
+		 * @param e int
+		 * @return EdgeView
+		 */
+		public EdgeView moveTo(int e) {
+			this.e = e;
+			return this;
+		}
+
+		/**
+		 * Returns the index of the edge the view is positioned at.
+		 * @return int
+		 */
+		public int index() { return e; }
+
+		@Override
+		public int getWeight() { return weight(e); }
+
+		@Override
+		public Vertex getSource() { return vertex(source(e)); }
+
+		@Override
+		public Vertex getDest() { return vertex(target(e)); }
+	}
+
+}
@@ -0,0 +1,126 @@
+package practice.weightedgraph;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import practice.weightedgraph.WeightedGraph.Edge;
+import practice.weightedgraph.WeightedGraph.Vertex;
+
+
+/**
+ * A read-only copy of a WeightedGraph laid out in primitive arrays, for the
+ * shortest path algorithms. Vertex i is the i-th vertex added to the graph,
+ * matching WeightedGraph.getVIndex(). The edges leaving vertex i are found
+ * at positions offsets[i] up to (but not including) offsets[i + 1] of the
+ * targets and weights arrays.
+ * <p>
+ * Changes made to the WeightedGraph after the snapshot was taken are not
+ * seen by it.
+ *
+ * @author sarablinn
+ *
+ */
+final class GraphSnapshot {
+
+	final Vertex[] vertices;
+	final int[] offsets;
+	final int[] targets;
+	final int[] weights;
+	final boolean hasNegativeWeight;
+	private final Map<String, Integer> indexByName;
+
+	/**
+	 * Copies the vertices and edges of the given graph.
+	 * @param graph WeightedGraph
+	 */
+	GraphSnapshot(WeightedGraph graph) {
+		Map<Vertex, LinkedList<Edge>> adjacency = graph.getGraph();
+		int numVertices = adjacency.size();
+		vertices = new Vertex[numVertices];
+		offsets = new int[numVertices + 1];
+		indexByName = new HashMap<>(numVertices * 2);
+		Map<Vertex, Integer> indexByVertex = new HashMap<>(numVertices * 2);
+
+		int i = 0;
+		for (Entry<Vertex, LinkedList<Edge>> node : adjacency.entrySet()) {
+			vertices[i] = node.getKey();
+			indexByName.put(node.getKey().getName(), i);
+			indexByVertex.put(node.getKey(), i);
+			offsets[i + 1] = offsets[i] + node.getValue().size();
+			i++;
+		}
+		targets = new int[offsets[numVertices]];
+		weights = new int[offsets[numVertices]];
+		boolean negative = false;
+		int e = 0;
+		for (LinkedList<Edge> edges : adjacency.values()) {
+			for (Edge edge : edges) {
+				targets[e] = indexByVertex.get(edge.getDest());
+				weights[e] = edge.getWeight();
+				negative |= edge.getWeight() < 0;
+				e++;
+			}
+		}
+		hasNegativeWeight = negative;
+	}
+
+	private GraphSnapshot(Vertex[] vertices, int[] offsets, int[] targets, int[] weights,
+			boolean hasNegativeWeight, Map<String, Integer> indexByName) {
+		this.vertices = vertices;
+		this.offsets = offsets;
+		this.targets = targets;
+		this.weights = weights;
+		this.hasNegativeWeight = hasNegativeWeight;
+		this.indexByName = indexByName;
+	}
+
+	/**
+	 * Returns the snapshot with every edge reversed, so the edges leaving
+	 * vertex i are the edges that entered it. Searching the reverse from t
+	 * finds the distance from every vertex to t.
+	 * @return GraphSnapshot
+	 */
+	GraphSnapshot reverse() {
+		int numVertices = size();
+		int[] newOffsets = new int[numVertices + 1];
+		for (int v : targets) {
+			newOffsets[v + 1]++;
+		}
+		for (int i = 0; i < numVertices; i++) {
+			newOffsets[i + 1] += newOffsets[i];
+		}
+		int[] cursor = Arrays.copyOf(newOffsets, numVertices);
+		int[] newTargets = new int[targets.length];
+		int[] newWeights = new int[weights.length];
+		for (int u = 0; u < numVertices; u++) {
+			for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+				int slot = cursor[targets[e]]++;
+				newTargets[slot] = u;
+				newWeights[slot] = weights[e];
+			}
+		}
+		return new GraphSnapshot(vertices, newOffsets, newTargets, newWeights,
+				hasNegativeWeight, indexByName);
+	}
+
+	/**
+	 * Returns the number of vertices.
+	 * @return int
+	 */
+	int size() { return vertices.length; }
+
+	/**
+	 * Returns the index of the Vertex by the input String name, or -1 if
+	 * the graph does not contain it.
+	 * @param name String
+	 * @return int
+	 */
+	int indexOf(String name) {
+		Integer index = indexByName.get(name);
+		return index == null ? -1 : index;
+	}
+
+}
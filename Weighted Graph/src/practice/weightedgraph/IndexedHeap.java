@@ -0,0 +1,140 @@
+package practice.weightedgraph;
+
+import java.util.Arrays;
+
+
+/**
+ * A d-ary min-heap of vertices 0..n-1 keyed by <code>long</code>
+ * priorities, stored in primitive arrays. Because the heap remembers where
+ * each vertex sits (<code>pos[v]</code>), a vertex already in the heap can
+ * have its key lowered in place with decreaseKey(), so the heap never holds
+ * more than one entry per vertex. A wider node (d = 4) keeps the tree
+ * shallow and its children on the same cache line.
+ *
+ * @author sarablinn
+ *
+ */
+final class IndexedHeap {
+
+	private static final int D = 4;
+
+	private final int[] heap;
+	private final int[] pos;
+	private final long[] keys;
+	private int size = 0;
+
+	/**
+	 * Creates an empty heap able to hold vertices 0..capacity-1.
+	 * @param capacity int
+	 */
+	IndexedHeap(int capacity) {
+		heap = new int[capacity];
+		pos = new int[capacity];
+		keys = new long[capacity];
+		Arrays.fill(pos, -1);
+	}
+
+	boolean isEmpty() { return size == 0; }
+
+	/**
+	 * Returns true if vertex v is waiting in the heap.
+	 * @param v vertex
+	 * @return boolean
+	 */
+	boolean contains(int v) { return pos[v] >= 0; }
+
+	/**
+	 * Returns the key of the vertex at the top of the heap.
+	 * @return long
+	 */
+	long peekKey() { return keys[heap[0]]; }
+
+	/**
+	 * Adds vertex v with the given key, or lowers its key if v is already
+	 * in the heap with a larger one.
+	 * @param v vertex
+	 * @param key long
+	 */
+	void push(int v, long key) {
+		if (pos[v] < 0) {
+			pos[v] = size;
+			heap[size++] = v;
+		}
+		else if (key >= keys[v]) {
+			return;
+		}
+		keys[v] = key;
+		siftUp(pos[v]);
+	}
+
+	/**
+	 * Removes and returns the vertex with the smallest key.
+	 * @return int vertex
+	 */
+	int poll() {
+		int top = heap[0];
+		pos[top] = -1;
+		size--;
+		if (size > 0) {
+			heap[0] = heap[size];
+			pos[heap[0]] = 0;
+			siftDown(0);
+		}
+		return top;
+	}
+
+	/**
+	 * Empties the heap. Only the vertices still in it are touched, so this
+	 * is cheap after a search that stopped early.
+	 */
+	void clear() {
+		for (int i = 0; i < size; i++) {
+			pos[heap[i]] = -1;
+		}
+		size = 0;
+	}
+
+	private void siftUp(int i) {
+		int v = heap[i];
+		long key = keys[v];
+		while (i > 0) {
+			int parent = (i - 1) / D;
+			int p = heap[parent];
+			if (keys[p] <= key) {
+				break;
+			}
+			heap[i] = p;
+			pos[p] = i;
+			i = parent;
+		}
+		heap[i] = v;
+		pos[v] = i;
+	}
+
+	private void siftDown(int i) {
+		int v = heap[i];
+		long key = keys[v];
+		while (true) {
+			int first = i * D + 1;
+			if (first >= size) {
+				break;
+			}
+			int best = first;
+			int last = Math.min(first + D, size);
+			for (int c = first + 1; c < last; c++) {
+				if (keys[heap[c]] < keys[heap[best]]) {
+					best = c;
+				}
+			}
+			if (keys[heap[best]] >= key) {
+				break;
+			}
+			heap[i] = heap[best];
+			pos[heap[i]] = i;
+			i = best;
+		}
+		heap[i] = v;
+		pos[v] = i;
+	}
+
+}
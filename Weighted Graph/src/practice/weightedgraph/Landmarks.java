@@ -0,0 +1,286 @@
+package practice.weightedgraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * Point-to-point shortest paths over a WeightedGraph using ALT: A* search,
+ * Landmarks and the Triangle inequality. Preprocessing picks k landmark
+ * vertices far apart from one another and stores, in primitive arrays, the
+ * distance from every landmark to every vertex and from every vertex to
+ * every landmark. For any vertices v and t and landmark L, the triangle
+ * inequality then gives lower bounds on the distance from v to t:
+ * <pre>
+ *     d(v, t) &gt;= d(v, L) - d(t, L)
+ *     d(v, t) &gt;= d(L, t) - d(L, v)
+ * </pre>
+ * A query runs a bidirectional A* search guided by the best of these bounds,
+ * so it heads towards the target instead of spreading out evenly like
+ * Dijkstra, and typically settles an order of magnitude fewer vertices.
+ * <p>
+ * The forward and backward searches use the averaged potential
+ * p(v) = (&pi;<sub>t</sub>(v) - &pi;<sub>s</sub>(v)) / 2 and its negation, which keeps both
+ * consistent, so the search can stop as soon as the two heap tops add up
+ * to the best path found. Keys are kept doubled to stay in integers.
+ * <p>
+ * Like Dijkstra, ALT needs non-negative weights, sees the graph as it was
+ * when the Landmarks were built, and reuses its scratch arrays between
+ * queries, so it should only be used by one thread at a time.
+ *
+ * @author sarablinn
+ *
+ */
+public class Landmarks {
+
+	private static final long INFINITY = Dijkstra.INFINITY;
+	private static final long UNSET = Long.MIN_VALUE;
+	// flags for vertices that cannot lie on any path from s to t
+	private static final byte CANNOT_REACH_TARGET = 1;
+	private static final byte NOT_FROM_SOURCE = 2;
+
+	private final GraphSnapshot forward;
+	private final GraphSnapshot backward;
+	private final int numVertices;
+	private final int[] landmarks;
+	// fromLandmark[i * n + v] = d(L_i, v), toLandmark[i * n + v] = d(v, L_i)
+	private final long[] fromLandmark;
+	private final long[] toLandmark;
+
+	private final long[] distF, distR;
+	private final int[] predF, predR;
+	private final long[] potential;
+	private final byte[] pruned;
+	private final IndexedHeap heapF, heapR;
+	private final int[] touched;
+	private int numTouched = 0;
+
+	/**
+	 * Picks k landmarks in the current vertices and edges of the given
+	 * graph and computes their distance tables.
+	 * @param graph WeightedGraph with no negative edge weights
+	 * @param k int number of landmarks
+	 */
+	public Landmarks(WeightedGraph graph, int k) {
+		this.forward = new GraphSnapshot(graph);
+		this.backward = forward.reverse();
+		this.numVertices = forward.size();
+		Dijkstra fromSearch = new Dijkstra(forward);
+		Dijkstra toSearch = new Dijkstra(backward);
+
+		k = Math.min(k, numVertices);
+		landmarks = new int[k];
+		fromLandmark = new long[k * numVertices];
+		toLandmark = new long[k * numVertices];
+		// farthest-first: each new landmark is the vertex farthest from
+		// the landmarks chosen so far (unreachable counts as farthest)
+		long[] nearest = new long[numVertices];
+		if (k > 0) {
+			fromSearch.search(0, -1);
+			System.arraycopy(fromSearch.lastDistances(), 0, nearest, 0, numVertices);
+		}
+		for (int i = 0; i < k; i++) {
+			int next = 0;
+			for (int v = 1; v < numVertices; v++) {
+				if (nearest[v] > nearest[next]) {
+					next = v;
+				}
+			}
+			landmarks[i] = next;
+			fromSearch.search(next, -1);
+			toSearch.search(next, -1);
+			long[] from = fromSearch.lastDistances();
+			System.arraycopy(from, 0, fromLandmark, i * numVertices, numVertices);
+			System.arraycopy(toSearch.lastDistances(), 0, toLandmark, i * numVertices, numVertices);
+			if (i == 0) {
+				Arrays.fill(nearest, INFINITY);
+			}
+			for (int v = 0; v < numVertices; v++) {
+				nearest[v] = Math.min(nearest[v], from[v]);
+			}
+			nearest[next] = -1;
+		}
+
+		distF = new long[numVertices];
+		distR = new long[numVertices];
+		predF = new int[numVertices];
+		predR = new int[numVertices];
+		potential = new long[numVertices];
+		pruned = new byte[numVertices];
+		touched = new int[numVertices];
+		heapF = new IndexedHeap(numVertices);
+		heapR = new IndexedHeap(numVertices);
+		Arrays.fill(distF, INFINITY);
+		Arrays.fill(distR, INFINITY);
+		Arrays.fill(predF, -1);
+		Arrays.fill(predR, -1);
+		Arrays.fill(potential, UNSET);
+	}
+
+	/**
+	 * Returns the names of the landmark vertices.
+	 * @return String array
+	 */
+	public String[] getLandmarks() {
+		String[] names = new String[landmarks.length];
+		for (int i = 0; i < landmarks.length; i++) {
+			names[i] = forward.vertices[landmarks[i]].getName();
+		}
+		return names;
+	}
+
+	/**
+	 * Returns the shortest path from the Vertex named source to the Vertex
+	 * named target, or null if the graph contains neither.
+	 * @param source String
+	 * @param target String
+	 * @return ShortestPath
+	 */
+	public ShortestPath shortestPath(String source, String target) {
+		int s = forward.indexOf(source);
+		int t = forward.indexOf(target);
+		if (s < 0 || t < 0) {
+			System.out.println("Graph does not contain " + (s < 0 ? source : target) + ".");
+			return null;
+		}
+		try {
+			return search(s, t);
+		}
+		finally {
+			reset();
+		}
+	}
+
+	private ShortestPath search(int s, int t) {
+		int settled = 0;
+		long best = INFINITY;
+		int meet = -1;
+		computePotential(s, s, t);
+		computePotential(t, s, t);
+		if ((pruned[s] & CANNOT_REACH_TARGET) != 0 || (pruned[t] & NOT_FROM_SOURCE) != 0) {
+			return new ShortestPath(INFINITY, Collections.<String>emptyList(), 0);
+		}
+		distF[s] = 0;
+		distR[t] = 0;
+		heapF.push(s, potential[s]);
+		heapR.push(t, -potential[t]);
+		if (s == t) {
+			best = 0;
+			meet = s;
+		}
+
+		while (!heapF.isEmpty() && !heapR.isEmpty()) {
+			if (best != INFINITY && heapF.peekKey() + heapR.peekKey() >= 2 * best) {
+				break;
+			}
+			boolean forwardStep = heapF.peekKey() <= heapR.peekKey();
+			GraphSnapshot graph = forwardStep ? forward : backward;
+			IndexedHeap heap = forwardStep ? heapF : heapR;
+			long[] dist = forwardStep ? distF : distR;
+			long[] other = forwardStep ? distR : distF;
+			int[] pred = forwardStep ? predF : predR;
+			byte skip = forwardStep ? CANNOT_REACH_TARGET : NOT_FROM_SOURCE;
+			long sign = forwardStep ? 1 : -1;
+
+			int u = heap.poll();
+			settled++;
+			for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+				int v = graph.targets[e];
+				long dv = dist[u] + graph.weights[e];
+				if (dv >= dist[v]) {
+					continue;
+				}
+				computePotential(v, s, t);
+				if ((pruned[v] & skip) != 0) {
+					continue;
+				}
+				dist[v] = dv;
+				pred[v] = u;
+				heap.push(v, 2 * dv + sign * potential[v]);
+				if (other[v] != INFINITY && dv + other[v] < best) {
+					best = dv + other[v];
+					meet = v;
+				}
+			}
+		}
+		heapF.clear();
+		heapR.clear();
+		if (meet < 0) {
+			return new ShortestPath(INFINITY, Collections.<String>emptyList(), settled);
+		}
+		List<String> path = new ArrayList<>();
+		for (int v = meet; v >= 0; v = predF[v]) {
+			path.add(forward.vertices[v].getName());
+		}
+		Collections.reverse(path);
+		for (int v = predR[meet]; v >= 0; v = predR[v]) {
+			path.add(forward.vertices[v].getName());
+		}
+		return new ShortestPath(best, path, settled);
+	}
+
+	/**
+	 * Sets potential[v] to &pi;<sub>t</sub>(v) - &pi;<sub>s</sub>(v), the difference of the
+	 * landmark lower bounds on d(v, t) and d(s, v), and flags v if the
+	 * tables show it cannot reach t or cannot be reached from s.
+	 */
+	private void computePotential(int v, int s, int t) {
+		if (potential[v] != UNSET) {
+			return;
+		}
+		touched[numTouched++] = v;
+		long toTarget = 0;
+		long fromSource = 0;
+		byte flags = 0;
+		for (int i = 0, base = 0; i < landmarks.length; i++, base += numVertices) {
+			long vToL = toLandmark[base + v], tToL = toLandmark[base + t], sToL = toLandmark[base + s];
+			long lToV = fromLandmark[base + v], lToT = fromLandmark[base + t], lToS = fromLandmark[base + s];
+			// d(v, t) >= d(v, L) - d(t, L); if t reaches L but v does not,
+			// v cannot reach t at all
+			if (tToL != INFINITY) {
+				if (vToL == INFINITY) {
+					flags |= CANNOT_REACH_TARGET;
+				}
+				else {
+					toTarget = Math.max(toTarget, vToL - tToL);
+				}
+			}
+			// d(v, t) >= d(L, t) - d(L, v)
+			if (lToT != INFINITY && lToV != INFINITY) {
+				toTarget = Math.max(toTarget, lToT - lToV);
+			}
+			// d(s, v) >= d(L, v) - d(L, s); if L reaches s but not v, s
+			// cannot reach v at all
+			if (lToS != INFINITY) {
+				if (lToV == INFINITY) {
+					flags |= NOT_FROM_SOURCE;
+				}
+				else {
+					fromSource = Math.max(fromSource, lToV - lToS);
+				}
+			}
+			// d(s, v) >= d(s, L) - d(v, L)
+			if (sToL != INFINITY && vToL != INFINITY) {
+				fromSource = Math.max(fromSource, sToL - vToL);
+			}
+		}
+		potential[v] = toTarget - fromSource;
+		pruned[v] = flags;
+	}
+
+	private void reset() {
+		for (int i = 0; i < numTouched; i++) {
+			int v = touched[i];
+			distF[v] = INFINITY;
+			distR[v] = INFINITY;
+			predF[v] = -1;
+			predR[v] = -1;
+			potential[v] = UNSET;
+			pruned[v] = 0;
+		}
+		numTouched = 0;
+	}
+
+}
@@ -0,0 +1,368 @@
+package practice.weightedgraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import practice.weightedgraph.WeightedGraph.Edge;
+import practice.weightedgraph.WeightedGraph.Vertex;
+
+
+/**
+ * A minimum spanning forest of a WeightedGraph: for every connected
+ * component, the set of edges of least total weight that connects all of
+ * its vertices. Edges are taken as undirected, so an edge added with
+ * addEdge(true, ...) may be used in either direction.
+ * <p>
+ * Large graphs use Boruvka's algorithm. Every vertex starts out as its own
+ * component, and each round every component picks its lightest edge to
+ * another component; all picked edges belong to the forest, so they are
+ * added and their components merged in a union-find. The number of
+ * components at least halves each round. The edge scan of a round is split
+ * across a ForkJoinPool: each worker lowers the lightest edge of both
+ * components an edge joins with an atomic compare-and-set minimum, and
+ * drops the edges that no longer join two components, so later rounds scan
+ * fewer edges. Small graphs use Kruskal's algorithm instead: sort the
+ * edges by weight once, and add each one that joins two components.
+ * <p>
+ * An edge is compared by its weight, then by its position in the graph,
+ * so no two edges tie and both algorithms pick the same forest.
+ *
+ * @author sarablinn
+ *
+ */
+public class MinimumSpanningTree {
+
+	// below this many edges, Kruskal's single sort beats Boruvka's rounds
+	private static final int KRUSKAL_EDGES = 1 << 14;
+	private static final int GRAIN = 1 << 12;
+	private static final long NONE = Long.MAX_VALUE;
+
+	private final long totalWeight;
+	private final List<Edge> edges;
+	private final int trees;
+
+	private MinimumSpanningTree(long totalWeight, List<Edge> edges, int trees) {
+		this.totalWeight = totalWeight;
+		this.edges = Collections.unmodifiableList(edges);
+		this.trees = trees;
+	}
+
+	/**
+	 * Finds the minimum spanning forest of the graph, using the common
+	 * ForkJoinPool.
+	 * @param graph WeightedGraph
+	 * @return MinimumSpanningTree
+	 */
+	public static MinimumSpanningTree find(WeightedGraph graph) {
+		return find(graph, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Finds the minimum spanning forest of the graph. Boruvka's rounds run
+	 * on the given pool; graphs with few edges, or a pool of one thread,
+	 * use Kruskal's algorithm.
+	 * @param graph WeightedGraph
+	 * @param pool ForkJoinPool
+	 * @return MinimumSpanningTree
+	 */
+	public static MinimumSpanningTree find(WeightedGraph graph, ForkJoinPool pool) {
+		Forest forest = new Forest(new GraphSnapshot(graph));
+		if (forest.numEdges < KRUSKAL_EDGES || pool.getParallelism() == 1) {
+			forest.kruskal();
+		}
+		else {
+			forest.boruvka(pool);
+		}
+		long totalWeight = 0;
+		for (int i = 0; i < forest.numPicked; i++) {
+			totalWeight += forest.weight[forest.picked[i]];
+		}
+		List<Edge> edges = new ArrayList<>(Arrays.asList(forest.pickedEdges(graph.getGraph())));
+		return new MinimumSpanningTree(totalWeight, edges, forest.numVertices - forest.numPicked);
+	}
+
+	/**
+	 * Returns the total weight of the forest's edges.
+	 * @return long
+	 */
+	public long getTotalWeight() { return totalWeight; }
+
+	/**
+	 * Returns the edges of the forest, in the order they were picked. Each
+	 * is the Edge object held in the graph's adjacency list of its source.
+	 * @return List of Edge
+	 */
+	public List<Edge> getEdges() { return edges; }
+
+	/**
+	 * Returns the number of trees in the forest, which is the number of
+	 * connected components of the graph; 1 if the graph is connected.
+	 * @return int
+	 */
+	public int getTreeCount() { return trees; }
+
+	public String toString() {
+		return "[MST: " + edges.size() + " edges, " + trees + " trees = " + totalWeight + "]";
+	}
+
+	//———————————————————————————————————————————————————————————
+
+	/**
+	 * The graph's edges, read from a GraphSnapshot with their sources
+	 * expanded from its offsets, and the union-find that grows into the
+	 * forest.
+	 */
+	private static class Forest {
+		private final int numVertices;
+		private final int numEdges;
+		private final int[] src;
+		private final int[] dst;
+		private final int[] weight;
+		private final Vertex[] vertices;
+		private final int[] offsets;
+		private final int[] parent;
+		private final int[] rank;
+		private final int[] picked;
+		private int numPicked = 0;
+
+		Forest(GraphSnapshot graph) {
+			numVertices = graph.size();
+			numEdges = graph.targets.length;
+			vertices = graph.vertices;
+			offsets = graph.offsets;
+			src = EdgeArrays.sources(offsets);
+			dst = graph.targets;
+			weight = graph.weights;
+			parent = new int[numVertices];
+			rank = new int[numVertices];
+			for (int v = 0; v < numVertices; v++) {
+				parent[v] = v;
+			}
+			picked = new int[Math.max(0, numVertices - 1)];
+		}
+
+		/**
+		 * Orders edges by weight, then by index. The index fits in the low
+		 * 31 bits, so comparing keys as signed longs compares the weights
+		 * first.
+		 */
+		long key(int e) {
+			return ((long) weight[e] << 32) | e;
+		}
+
+		int root(int v) {
+			while (parent[v] != v) {
+				parent[v] = parent[parent[v]];
+				v = parent[v];
+			}
+			return v;
+		}
+
+		/**
+		 * Adds edge e to the forest if it joins two components.
+		 */
+		void pick(int e) {
+			int a = root(src[e]);
+			int b = root(dst[e]);
+			if (a == b) {
+				return;
+			}
+			if (rank[a] < rank[b]) {
+				int swap = a;
+				a = b;
+				b = swap;
+			}
+			parent[b] = a;
+			if (rank[a] == rank[b]) {
+				rank[a]++;
+			}
+			picked[numPicked++] = e;
+		}
+
+		/**
+		 * Returns the Edge objects of the picked edges, in the order they
+		 * were picked. Edge e is the (e - offsets[u])-th Edge in the list of
+		 * its source u, so the picked edges are sorted and each list they
+		 * come from is walked once.
+		 */
+		Edge[] pickedEdges(Map<Vertex, LinkedList<Edge>> adjacency) {
+			// edge in the high bits, pick order in the low bits
+			long[] byEdge = new long[numPicked];
+			for (int i = 0; i < numPicked; i++) {
+				byEdge[i] = ((long) picked[i] << 32) | i;
+			}
+			Arrays.sort(byEdge);
+			Edge[] result = new Edge[numPicked];
+			Iterator<Edge> list = null;
+			int u = -1;
+			int next = 0;
+			for (long key : byEdge) {
+				int e = (int) (key >>> 32);
+				if (src[e] != u) {
+					u = src[e];
+					list = adjacency.get(vertices[u]).iterator();
+					next = offsets[u];
+				}
+				while (next < e) {
+					list.next();
+					next++;
+				}
+				result[(int) key] = list.next();
+				next++;
+			}
+			return result;
+		}
+
+		void kruskal() {
+			long[] keys = new long[numEdges];
+			for (int e = 0; e < numEdges; e++) {
+				keys[e] = key(e);
+			}
+			Arrays.sort(keys);
+			for (int i = 0; i < numEdges && numPicked < picked.length; i++) {
+				pick((int) keys[i]);
+			}
+		}
+
+		void boruvka(ForkJoinPool pool) {
+			// active[0, numActive) are the edges that may still join two
+			// components; comp[v] is v's component during a round
+			int[] active = new int[numEdges];
+			for (int e = 0; e < numEdges; e++) {
+				active[e] = e;
+			}
+			int numActive = numEdges;
+			int[] comp = new int[numVertices];
+			AtomicLongArray lightest = new AtomicLongArray(numVertices);
+			while (numActive > 0) {
+				pool.invoke(new LabelTask(comp, lightest, 0, numVertices));
+				int blocks = (numActive + GRAIN - 1) / GRAIN;
+				int[] kept = new int[blocks];
+				pool.invoke(new ScanTask(active, numActive, comp, lightest, kept, 0, blocks));
+				// close the gaps the scan left at the end of every block
+				numActive = 0;
+				for (int b = 0; b < blocks; b++) {
+					System.arraycopy(active, b * GRAIN, active, numActive, kept[b]);
+					numActive += kept[b];
+				}
+				for (int v = 0; v < numVertices; v++) {
+					if (comp[v] == v && lightest.get(v) != NONE) {
+						pick((int) lightest.get(v));
+					}
+				}
+			}
+		}
+
+		/**
+		 * Sets comp[v] to the root of every vertex in [lo, hi), and clears
+		 * the lightest edge of every root. parent is not changed while the
+		 * task runs, except that v's own entry is pointed straight at its
+		 * root; a concurrent root() still finds the same root through it.
+		 */
+		private class LabelTask extends RecursiveAction {
+			private static final long serialVersionUID = 1L;
+			private final int[] comp;
+			private final AtomicLongArray lightest;
+			private final int lo, hi;
+
+			LabelTask(int[] comp, AtomicLongArray lightest, int lo, int hi) {
+				this.comp = comp;
+				this.lightest = lightest;
+				this.lo = lo;
+				this.hi = hi;
+			}
+
+			@Override
+			protected void compute() {
+				if (hi - lo > GRAIN) {
+					int mid = (lo + hi) >>> 1;
+					invokeAll(new LabelTask(comp, lightest, lo, mid),
+							new LabelTask(comp, lightest, mid, hi));
+					return;
+				}
+				for (int v = lo; v < hi; v++) {
+					int r = v;
+					while (parent[r] != r) {
+						r = parent[r];
+					}
+					parent[v] = r;
+					comp[v] = r;
+					if (r == v) {
+						lightest.set(v, NONE);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Scans the active edges in blocks [lo, hi) of GRAIN edges. Every
+		 * edge that still joins two components lowers the lightest edge of
+		 * both, and is moved to the front of its block; kept[b] is the
+		 * number left in block b.
+		 */
+		private class ScanTask extends RecursiveAction {
+			private static final long serialVersionUID = 1L;
+			private final int[] active;
+			private final int numActive;
+			private final int[] comp;
+			private final AtomicLongArray lightest;
+			private final int[] kept;
+			private final int lo, hi;
+
+			ScanTask(int[] active, int numActive, int[] comp, AtomicLongArray lightest,
+					int[] kept, int lo, int hi) {
+				this.active = active;
+				this.numActive = numActive;
+				this.comp = comp;
+				this.lightest = lightest;
+				this.kept = kept;
+				this.lo = lo;
+				this.hi = hi;
+			}
+
+			@Override
+			protected void compute() {
+				if (hi - lo > 1) {
+					int mid = (lo + hi) >>> 1;
+					invokeAll(new ScanTask(active, numActive, comp, lightest, kept, lo, mid),
+							new ScanTask(active, numActive, comp, lightest, kept, mid, hi));
+					return;
+				}
+				int begin = lo * GRAIN;
+				int end = Math.min(begin + GRAIN, numActive);
+				int size = begin;
+				for (int i = begin; i < end; i++) {
+					int e = active[i];
+					int a = comp[src[e]];
+					int b = comp[dst[e]];
+					if (a != b) {
+						long key = key(e);
+						lowerTo(lightest, a, key);
+						lowerTo(lightest, b, key);
+						active[size++] = e;
+					}
+				}
+				kept[lo] = size - begin;
+			}
+		}
+
+		/**
+		 * Atomically sets lightest[c] to the minimum of its value and key.
+		 */
+		private static void lowerTo(AtomicLongArray lightest, int c, long key) {
+			long current = lightest.get(c);
+			while (key < current && !lightest.compareAndSet(c, current, key)) {
+				current = lightest.get(c);
+			}
+		}
+	}
+
+}
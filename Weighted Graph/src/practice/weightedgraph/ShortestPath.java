@@ -0,0 +1,59 @@
+package practice.weightedgraph;
+
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * The answer to a point-to-point shortest path query: the total weight of
+ * the path and the names of the vertices along it, from source to target.
+ * Also records how many vertices the search settled to find it, which is a
+ * fair measure of how much work the query took.
+ *
+ * @author sarablinn
+ *
+ */
+public class ShortestPath {
+
+	private final long distance;
+	private final List<String> path;
+	private final int settled;
+
+	ShortestPath(long distance, List<String> path, int settled) {
+		this.distance = distance;
+		this.path = Collections.unmodifiableList(path);
+		this.settled = settled;
+	}
+
+	/**
+	 * Returns true if the target can be reached from the source.
+	 * @return boolean
+	 */
+	public boolean isReachable() { return !path.isEmpty(); }
+
+	/**
+	 * Returns the total weight of the shortest path, or Long.MAX_VALUE if
+	 * the target cannot be reached.
+	 * @return long
+	 */
+	public long getDistance() { return distance; }
+
+	/**
+	 * Returns the names of the vertices along the path, starting with the
+	 * source and ending with the target. Empty if the target cannot be
+	 * reached.
+	 * @return List of String names
+	 */
+	public List<String> getPath() { return path; }
+
+	/**
+	 * Returns the number of vertices settled by the search.
+	 * @return int
+	 */
+	public int getSettled() { return settled; }
+
+	public String toString() {
+		return "[" + String.join(" > ", path) + " = " + distance + "]";
+	}
+
+}
@@ -0,0 +1,287 @@
+package practice.weightedgraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+
+/**
+ * A bounded cache of single-source shortest path results over a
+ * VersionedWeightedGraph. The first query from a source computes the
+ * distance and predecessor of every vertex, which answers every later query
+ * from that source until the graph changes. When the cache grows past its
+ * byte budget, the sources used least recently are evicted first.
+ * <p>
+ * Adding an edge (u, v) of weight w does not throw away every result:
+ * a cached result from source s only changes if the new edge gives v a
+ * shorter path, that is if dist[u] + w &lt; dist[v]. Only those results are
+ * dropped; the others are kept for the new version. Adding a vertex
+ * changes no distances, so nothing is dropped.
+ * <p>
+ * Results are computed with Dijkstra, or with BellmanFord if the graph has
+ * a negative edge weight. The hit, miss, eviction and invalidation counts
+ * show whether the budget fits the query mix. A cache may be shared by any
+ * number of threads. Call close() once the cache is no longer needed, so
+ * that the graph stops reporting changes to it.
+ *
+ * @author sarablinn
+ *
+ */
+public class ShortestPathCache implements AutoCloseable {
+
+	private static final long INFINITY = Dijkstra.INFINITY;
+	// rough cost of an entry beyond its arrays: headers, map node, fields
+	private static final long ENTRY_OVERHEAD = 96;
+
+	private final VersionedWeightedGraph graph;
+	private final long maxBytes;
+	// least recently used first; every entry is correct for version
+	private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long version;
+	private long bytes = 0;
+	private long hits = 0;
+	private long misses = 0;
+	private long evictions = 0;
+	private long invalidations = 0;
+
+	// the latest snapshot taken of the graph, reused until the graph changes
+	private View view;
+
+	/**
+	 * Creates an empty cache of results over the given graph, holding at
+	 * most maxBytes of distance and predecessor arrays.
+	 * @param graph VersionedWeightedGraph
+	 * @param maxBytes long
+	 */
+	public ShortestPathCache(VersionedWeightedGraph graph, long maxBytes) {
+		this.graph = graph;
+		this.maxBytes = maxBytes;
+		synchronized (graph) {
+			this.version = graph.getVersion();
+			graph.addCache(this);
+		}
+	}
+
+	/**
+	 * One source's shortest path tree.
+	 */
+	private static class Entry {
+		private final long[] dist;
+		private final int[] pred;
+		private final long bytes;
+
+		Entry(long[] dist, int[] pred) {
+			this.dist = dist;
+			this.pred = pred;
+			this.bytes = 12L * dist.length + ENTRY_OVERHEAD;
+		}
+
+		long distance(int v) { return v < dist.length ? dist[v] : INFINITY; }
+	}
+
+	/**
+	 * A snapshot of the graph and the version it was taken at.
+	 */
+	private static class View {
+		private final GraphSnapshot graph;
+		private final long version;
+
+		View(GraphSnapshot graph, long version) {
+			this.graph = graph;
+			this.version = version;
+		}
+	}
+
+	//———————————————————————————————————————————————————————————
+
+	/**
+	 * Returns the shortest path from the Vertex named source to the Vertex
+	 * named target, or null if the graph contains neither.
+	 * @param source String
+	 * @param target String
+	 * @return ShortestPath
+	 */
+	public ShortestPath shortestPath(String source, String target) {
+		View view = view();
+		GraphSnapshot graph = view.graph;
+		int s = graph.indexOf(source);
+		int t = graph.indexOf(target);
+		if (s < 0 || t < 0) {
+			System.out.println("Graph does not contain " + (s < 0 ? source : target) + ".");
+			return null;
+		}
+		Entry entry = lookUp(s, view);
+		if (entry.dist.length > graph.size()) {
+			// cached after vertices were added that this view has not seen
+			graph = view().graph;
+		}
+		long distance = entry.distance(t);
+		List<String> path = new ArrayList<>();
+		if (distance != INFINITY) {
+			for (int v = t; v >= 0; v = entry.pred[v]) {
+				path.add(graph.vertices[v].getName());
+			}
+			Collections.reverse(path);
+		}
+		return new ShortestPath(distance, path, 0);
+	}
+
+	/**
+	 * Returns the distance from the Vertex named source to every vertex, in
+	 * getVIndex() order, with Long.MAX_VALUE for unreachable vertices; or
+	 * null if the graph does not contain source.
+	 * @param source String
+	 * @return long array
+	 */
+	public long[] distances(String source) {
+		View view = view();
+		GraphSnapshot graph = view.graph;
+		int s = graph.indexOf(source);
+		if (s < 0) {
+			System.out.println("Graph does not contain " + source + ".");
+			return null;
+		}
+		Entry entry = lookUp(s, view);
+		long[] dist = Arrays.copyOf(entry.dist, Math.max(entry.dist.length, graph.size()));
+		Arrays.fill(dist, entry.dist.length, dist.length, INFINITY);
+		return dist;
+	}
+
+	/**
+	 * Returns the cached entry for source s, computing and caching it on a
+	 * miss. The search runs without holding the cache's lock, and its
+	 * result is only cached if the graph did not change in the meantime.
+	 */
+	private Entry lookUp(int s, View view) {
+		synchronized (this) {
+			Entry entry = entries.get(s);
+			if (entry != null) {
+				hits++;
+				return entry;
+			}
+			misses++;
+		}
+		Entry entry = search(view.graph, s);
+		synchronized (this) {
+			if (view.version == version && entry.bytes <= maxBytes && !entries.containsKey(s)) {
+				entries.put(s, entry);
+				bytes += entry.bytes;
+				evict();
+			}
+		}
+		return entry;
+	}
+
+	private synchronized void evict() {
+		Iterator<Entry> eldest = entries.values().iterator();
+		while (bytes > maxBytes && eldest.hasNext()) {
+			bytes -= eldest.next().bytes;
+			eldest.remove();
+			evictions++;
+		}
+	}
+
+	/**
+	 * Returns a snapshot of the graph as it is now, reusing the last one if
+	 * the graph has not changed since.
+	 */
+	private View view() {
+		synchronized (this) {
+			if (view != null && view.version == version) {
+				return view;
+			}
+		}
+		View current;
+		synchronized (graph) {
+			current = new View(new GraphSnapshot(graph), graph.getVersion());
+		}
+		synchronized (this) {
+			if (view == null || current.version > view.version) {
+				view = current;
+			}
+		}
+		return current;
+	}
+
+	private static Entry search(GraphSnapshot graph, int s) {
+		if (!graph.hasNegativeWeight) {
+			Dijkstra dijkstra = new Dijkstra(graph);
+			dijkstra.search(s, -1);
+			return new Entry(dijkstra.lastDistances(), dijkstra.lastPredecessors());
+		}
+		BellmanFord bellmanFord = new BellmanFord(graph);
+		bellmanFord.search(s);
+		return new Entry(bellmanFord.lastDistances(), bellmanFord.lastPredecessors());
+	}
+
+	//———————————————————————————————————————————————————————————
+
+	/**
+	 * Called by the graph after the edge (u, v) of the given weight was
+	 * added. Drops every result the edge shortens a path in.
+	 */
+	synchronized void edgeAdded(int u, int v, int weight, long newVersion) {
+		Iterator<Entry> it = entries.values().iterator();
+		while (it.hasNext()) {
+			Entry entry = it.next();
+			long du = entry.distance(u);
+			if (du != INFINITY && du + weight < entry.distance(v)) {
+				bytes -= entry.bytes;
+				it.remove();
+				invalidations++;
+			}
+		}
+		version = newVersion;
+	}
+
+	/**
+	 * Called by the graph after a vertex was added, which no cached result
+	 * depends on.
+	 */
+	synchronized void vertexAdded(long newVersion) {
+		version = newVersion;
+	}
+
+	/**
+	 * Stops the graph from reporting changes to this cache, and empties it.
+	 */
+	@Override
+	public void close() {
+		graph.removeCache(this);
+		synchronized (this) {
+			entries.clear();
+			bytes = 0;
+		}
+	}
+
+	//———————————————————————————————————————————————————————————
+
+	public synchronized long getHits() { return hits; }
+
+	public synchronized long getMisses() { return misses; }
+
+	public synchronized long getEvictions() { return evictions; }
+
+	/**
+	 * Returns the number of results dropped because an added edge changed
+	 * them.
+	 * @return long
+	 */
+	public synchronized long getInvalidations() { return invalidations; }
+
+	/**
+	 * Returns the number of sources whose results are cached.
+	 * @return int
+	 */
+	public synchronized int size() { return entries.size(); }
+
+	/**
+	 * Returns the estimated number of bytes held by the cached results.
+	 * @return long
+	 */
+	public synchronized long getBytes() { return bytes; }
+
+}
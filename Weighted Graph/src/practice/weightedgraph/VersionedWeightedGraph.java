@@ -0,0 +1,122 @@
+package practice.weightedgraph;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+
+/**
+ * A WeightedGraph that counts its changes. Every vertex or edge added
+ * raises its version by one, so a result computed at one version is known
+ * to still describe the graph for as long as the version is unchanged.
+ * Every edge added is also reported to the ShortestPathCaches built on the
+ * graph, so they can drop only the results the new edge changes.
+ * <p>
+ * Changes are made while holding the graph's lock, and so are snapshots
+ * taken by the caches, so that a snapshot always matches its version.
+ * Lookups by name search the graph's map, so they hold the lock too.
+ * An undirected edge added by name is one change: both directions, and
+ * any vertices it creates, are added before the lock is released, so a
+ * snapshot never holds one direction without the other.
+ *
+ * @author sarablinn
+ *
+ */
+public class VersionedWeightedGraph extends WeightedGraph {
+
+	private long version = 0;
+	// getVIndex() without its linear search of the index list
+	private final Map<Vertex, Integer> indexByVertex = new HashMap<>();
+	private final List<ShortestPathCache> caches = new CopyOnWriteArrayList<>();
+
+	/**
+	 * Returns the number of vertices and edges added so far.
+	 * @return long
+	 */
+	public synchronized long getVersion() { return version; }
+
+	@Override
+	public synchronized boolean addVertex(String name) {
+		if (!super.addVertex(name)) {
+			return false;
+		}
+		indexByVertex.put(getVertex(name), indexByVertex.size());
+		version++;
+		for (ShortestPathCache cache : caches) {
+			cache.vertexAdded(version);
+		}
+		return true;
+	}
+
+	/**
+	 * Adds the edge, raises the version and tells every cache about it.
+	 * Both ends are looked up before anything changes, so an edge to a
+	 * vertex outside the graph is never added behind the caches' backs.
+	 * @throws IllegalArgumentException if the graph does not contain
+	 * source or dest
+	 */
+	@Override
+	public synchronized void addEdge(Vertex source, Vertex dest, int weight) {
+		Integer s = indexByVertex.get(source);
+		Integer d = indexByVertex.get(dest);
+		if (s == null || d == null) {
+			Vertex missing = s == null ? source : dest;
+			throw new IllegalArgumentException("Graph does not contain "
+					+ (missing == null ? "null" : missing.getName()) + ".");
+		}
+		super.addEdge(source, dest, weight);
+		version++;
+		for (ShortestPathCache cache : caches) {
+			cache.edgeAdded(s, d, weight, version);
+		}
+	}
+
+	/**
+	 * Adds the edge by the names of its ends, creating either end if the
+	 * graph does not have it yet, and both directions unless directed,
+	 * all under the graph's lock.
+	 */
+	@Override
+	public synchronized void addEdge(boolean directed, String vertex1, String vertex2, int weight) {
+		super.addEdge(directed, vertex1, vertex2, weight);
+	}
+
+	@Override
+	public synchronized int size() {
+		return super.size();
+	}
+
+	@Override
+	public synchronized boolean hasVertex(String name) {
+		return super.hasVertex(name);
+	}
+
+	@Override
+	public synchronized Vertex getVertex(String name) {
+		return super.getVertex(name);
+	}
+
+	@Override
+	public synchronized int getVIndex(Vertex vertex) {
+		return super.getVIndex(vertex);
+	}
+
+	@Override
+	public synchronized int getVIndex(String name) {
+		return super.getVIndex(name);
+	}
+
+	/**
+	 * Registers a cache to be told about every vertex and edge added from
+	 * now on.
+	 */
+	void addCache(ShortestPathCache cache) {
+		caches.add(cache);
+	}
+
+	void removeCache(ShortestPathCache cache) {
+		caches.remove(cache);
+	}
+
+}
@@ -0,0 +1,267 @@
+package practice.datastructures;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import practice.weightedgraph.WeightedGraph;
+
+
+/**
+ * Synthetic undirected graphs for the benchmarks, each built from a seed so
+ * that every run measures the same graph. The four shapes stress a
+ * traversal in different ways:
+ * <ul>
+ * <li><b>ERDOS_RENYI</b>: edges between uniformly random pairs. Every
+ * vertex has about the same degree, and a search reaches most of the graph
+ * within a few levels, jumping all over memory.</li>
+ * <li><b>RMAT</b>: the recursive matrix model used by Graph500. Degrees
+ * follow a power law, so a few hubs hold a large share of the edges, as in
+ * web and social graphs.</li>
+ * <li><b>GRID</b>: a square lattice. Every vertex has at most 4 neighbors,
+ * and the search frontier grows slowly over many levels.</li>
+ * <li><b>CHAIN</b>: one long path, the deepest graph there is: a depth
+ * first search goes as deep as the graph is large.</li>
+ * </ul>
+ * Generators return an EdgeList, which can be laid out as the adjacency
+ * list, CSRGraph or WeightedGraph that each benchmark needs.
+ *
+ * @author sarablinn
+ *
+ */
+public class GraphGenerators {
+
+	public enum Shape { ERDOS_RENYI, RMAT, GRID, CHAIN }
+
+	// average degree of the random shapes, as in the Graph500 edge factor
+	public static final int EDGE_FACTOR = 8;
+
+	/**
+	 * Returns a graph of the given shape with about the given number of
+	 * vertices: GRID rounds down to a square, RMAT to a power of two.
+	 * @param shape Shape
+	 * @param vertices int
+	 * @param seed long
+	 * @return EdgeList
+	 */
+	public static EdgeList generate(Shape shape, int vertices, long seed) {
+		switch (shape) {
+			case ERDOS_RENYI:
+				return erdosRenyi(vertices, EDGE_FACTOR * vertices / 2, seed);
+			case RMAT:
+				return rmat(31 - Integer.numberOfLeadingZeros(vertices), EDGE_FACTOR / 2, seed);
+			case GRID:
+				return grid((int) Math.sqrt(vertices));
+			case CHAIN:
+				return chain(vertices);
+			default:
+				throw new IllegalArgumentException("Unknown shape: " + shape);
+		}
+	}
+
+	/**
+	 * G(n, m): m edges between uniformly random pairs of distinct vertices.
+	 * @param vertices int
+	 * @param edges int
+	 * @param seed long
+	 * @return EdgeList
+	 */
+	public static EdgeList erdosRenyi(int vertices, int edges, long seed) {
+		SplittableRandom random = new SplittableRandom(seed);
+		EdgeList list = new EdgeList(vertices, edges);
+		while (list.size < edges) {
+			int u = random.nextInt(vertices);
+			int v = random.nextInt(vertices);
+			if (u != v) {
+				list.add(u, v);
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * R-MAT with the Graph500 probabilities a = 0.57, b = c = 0.19: each
+	 * edge picks one quadrant of the adjacency matrix per bit of the vertex
+	 * ids. The ids are then shuffled, so that the hubs are not all at the
+	 * start of the arrays. Self loops are dropped.
+	 * @param scale int, the graph has 2^scale vertices
+	 * @param edgeFactor int, the graph has about edgeFactor * 2^scale edges
+	 * @param seed long
+	 * @return EdgeList
+	 */
+	public static EdgeList rmat(int scale, int edgeFactor, long seed) {
+		SplittableRandom random = new SplittableRandom(seed);
+		int vertices = 1 << scale;
+		int edges = edgeFactor * vertices;
+		int[] shuffle = new int[vertices];
+		for (int v = 0; v < vertices; v++) {
+			shuffle[v] = v;
+		}
+		for (int v = vertices - 1; v > 0; v--) {
+			int w = random.nextInt(v + 1);
+			int swap = shuffle[v];
+			shuffle[v] = shuffle[w];
+			shuffle[w] = swap;
+		}
+		EdgeList list = new EdgeList(vertices, edges);
+		for (int i = 0; i < edges; i++) {
+			int u = 0;
+			int v = 0;
+			for (int bit = 0; bit < scale; bit++) {
+				double p = random.nextDouble();
+				if (p >= 0.57) {
+					if (p < 0.76) {
+						v |= 1 << bit;
+					}
+					else if (p < 0.95) {
+						u |= 1 << bit;
+					}
+					else {
+						u |= 1 << bit;
+						v |= 1 << bit;
+					}
+				}
+			}
+			if (u != v) {
+				list.add(shuffle[u], shuffle[v]);
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * A side by side lattice, vertex r * side + c joined to its right and
+	 * lower neighbors.
+	 * @param side int
+	 * @return EdgeList
+	 */
+	public static EdgeList grid(int side) {
+		EdgeList list = new EdgeList(side * side, 2 * side * side);
+		for (int r = 0; r < side; r++) {
+			for (int c = 0; c < side; c++) {
+				int v = r * side + c;
+				if (c + 1 < side) {
+					list.add(v, v + 1);
+				}
+				if (r + 1 < side) {
+					list.add(v, v + side);
+				}
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * The path 0 - 1 - 2 - ... - (vertices - 1).
+	 * @param vertices int
+	 * @return EdgeList
+	 */
+	public static EdgeList chain(int vertices) {
+		EdgeList list = new EdgeList(vertices, vertices);
+		for (int v = 0; v + 1 < vertices; v++) {
+			list.add(v, v + 1);
+		}
+		return list;
+	}
+
+	//———————————————————————————————————————————————————————————
+
+	/**
+	 * The undirected edges (us[i], vs[i]) of a generated graph. Repeated
+	 * pairs are kept here and dropped when the graph is laid out.
+	 */
+	public static class EdgeList {
+		private final int vertices;
+		private int[] us;
+		private int[] vs;
+		private int size = 0;
+
+		EdgeList(int vertices, int capacity) {
+			this.vertices = vertices;
+			this.us = new int[Math.max(1, capacity)];
+			this.vs = new int[Math.max(1, capacity)];
+		}
+
+		void add(int u, int v) {
+			if (size == us.length) {
+				us = Arrays.copyOf(us, size * 2);
+				vs = Arrays.copyOf(vs, size * 2);
+			}
+			us[size] = u;
+			vs[size] = v;
+			size++;
+		}
+
+		public int vertexCount() { return vertices; }
+
+		public int edgeCount() { return size; }
+
+		/**
+		 * Returns the vertex with the most edges, lowest first on ties: a
+		 * start from which a search reaches the largest component.
+		 * @return int
+		 */
+		public int hub() {
+			int[] degree = new int[vertices];
+			for (int i = 0; i < size; i++) {
+				degree[us[i]]++;
+				degree[vs[i]]++;
+			}
+			int hub = 0;
+			for (int v = 1; v < vertices; v++) {
+				if (degree[v] > degree[hub]) {
+					hub = v;
+				}
+			}
+			return hub;
+		}
+
+		/**
+		 * Lays the graph out as a GraphPractice adjacency list.
+		 * @return ArrayList<ArrayList<Integer>>
+		 */
+		public ArrayList<ArrayList<Integer>> toAdjacencyList() {
+			ArrayList<ArrayList<Integer>> adj = GraphPractice.createGraph(vertices);
+			GraphPractice.addUndirectedEdges(adj, Arrays.copyOf(us, size), Arrays.copyOf(vs, size));
+			return adj;
+		}
+
+		/**
+		 * Lays the graph out as a CSRGraph, with the same neighbor order as
+		 * toAdjacencyList().
+		 * @return CSRGraph
+		 */
+		public CSRGraph toCSRGraph() {
+			CSRGraph.Builder builder = new CSRGraph.Builder(vertices);
+			for (int i = 0; i < size; i++) {
+				builder.addUndirectedEdge(us[i], vs[i]);
+			}
+			return builder.build();
+		}
+
+		/**
+		 * Lays the graph out as a WeightedGraph with vertices named "0",
+		 * "1", ..., and every edge stored in both directions with a random
+		 * weight from 1 to maxWeight.
+		 * @param maxWeight int
+		 * @param seed long
+		 * @return WeightedGraph
+		 */
+		public WeightedGraph toWeightedGraph(int maxWeight, long seed) {
+			SplittableRandom random = new SplittableRandom(seed);
+			WeightedGraph graph = new WeightedGraph();
+			WeightedGraph.Vertex[] vertex = new WeightedGraph.Vertex[vertices];
+			for (int v = 0; v < vertices; v++) {
+				graph.addVertex(Integer.toString(v));
+				vertex[v] = graph.getVertex(Integer.toString(v));
+			}
+			for (int i = 0; i < size; i++) {
+				int weight = 1 + random.nextInt(maxWeight);
+				graph.addEdge(vertex[us[i]], vertex[vs[i]], weight);
+				graph.addEdge(vertex[vs[i]], vertex[us[i]], weight);
+			}
+			return graph;
+		}
+	}
+
+}
@@ -0,0 +1,71 @@
+package practice.datastructures;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import practice.datastructures.GraphGenerators.Shape;
+
+
+/**
+ * Hop distances from a batch of random sources: one MultiSourceBFS search
+ * against one breadthFirstSearch() per source.
+ *
+ * @author sarablinn
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class MultiSourceBFSBenchmark {
+
+	@Param({ "ERDOS_RENYI", "RMAT", "GRID" })
+	Shape shape;
+
+	@Param({ "16384", "262144" })
+	int vertices;
+
+	@Param({ "64", "512" })
+	int sources;
+
+	private CSRGraph graph;
+	private int[] starts;
+
+	@Setup
+	public void setUp() {
+		graph = GraphGenerators.generate(shape, vertices, 42).toCSRGraph();
+		SplittableRandom random = new SplittableRandom(7);
+		starts = new int[sources];
+		for (int i = 0; i < sources; i++) {
+			starts[i] = random.nextInt(graph.vertexCount());
+		}
+	}
+
+	@Benchmark
+	public MultiSourceBFS.Result multiSource() {
+		return MultiSourceBFS.search(graph, starts);
+	}
+
+	@Benchmark
+	public void onePerSource(Blackhole blackhole) {
+		for (int s : starts) {
+			blackhole.consume(GraphPractice.breadthFirstSearch(graph, s));
+		}
+	}
+
+}
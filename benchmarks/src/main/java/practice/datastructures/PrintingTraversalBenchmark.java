@@ -0,0 +1,78 @@
+package practice.datastructures;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import practice.datastructures.GraphGenerators.EdgeList;
+import practice.datastructures.GraphGenerators.Shape;
+
+
+/**
+ * The adjacency list breadthFirstSearch() and depthFirstSearch(), which
+ * print the order they visit vertices in. System.out is swapped for a
+ * stream that discards its output, so the numbers include building the
+ * printed strings but not the console. breadthFirstSearch() also prints
+ * the whole queue after every vertex it adds, which is quadratic, so the
+ * graphs here stay small.
+ *
+ * @author sarablinn
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrintingTraversalBenchmark {
+
+	@Param({ "ERDOS_RENYI", "RMAT", "GRID", "CHAIN" })
+	Shape shape;
+
+	@Param({ "256", "1024", "4096" })
+	int vertices;
+
+	private ArrayList<ArrayList<Integer>> adj;
+	private int start;
+	private PrintStream console;
+
+	@Setup
+	public void setUp() {
+		EdgeList edges = GraphGenerators.generate(shape, vertices, 42);
+		adj = edges.toAdjacencyList();
+		start = edges.hub();
+		console = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+	}
+
+	@TearDown
+	public void tearDown() {
+		System.setOut(console);
+	}
+
+	@Benchmark
+	public void breadthFirstSearch() {
+		GraphPractice.breadthFirstSearch(adj, start);
+	}
+
+	@Benchmark
+	public void depthFirstSearch() {
+		GraphPractice.depthFirstSearch(adj, start);
+	}
+
+}
@@ -0,0 +1,91 @@
+package practice.datastructures;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import practice.datastructures.GraphGenerators.EdgeList;
+import practice.datastructures.GraphGenerators.Shape;
+
+
+/**
+ * GraphPractice's traversals over every generated shape and size. Each
+ * search starts from the graph's hub, so it covers the largest component.
+ * Throughput gives ops/s; SampleTime gives the latency distribution,
+ * including p0.99, of single calls.
+ * <p>
+ * The adjacency list versions of breadthFirstSearch() and
+ * depthFirstSearch() print their results, so the printing-free CSRGraph
+ * versions are measured here, and the printing ones in
+ * PrintingTraversalBenchmark.
+ *
+ * @author sarablinn
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class TraversalBenchmark {
+
+	@Param({ "ERDOS_RENYI", "RMAT", "GRID", "CHAIN" })
+	Shape shape;
+
+	@Param({ "1024", "16384", "262144" })
+	int vertices;
+
+	private ArrayList<ArrayList<Integer>> adj;
+	private CSRGraph graph;
+	private int start;
+
+	@Setup
+	public void setUp() {
+		EdgeList edges = GraphGenerators.generate(shape, vertices, 42);
+		adj = edges.toAdjacencyList();
+		graph = edges.toCSRGraph();
+		start = edges.hub();
+	}
+
+	@Benchmark
+	public int[] breadthFirstSearch() {
+		return GraphPractice.breadthFirstSearch(graph, start);
+	}
+
+	@Benchmark
+	public int[] depthFirstSearch() {
+		return GraphPractice.depthFirstSearch(graph, start);
+	}
+
+	/**
+	 * Includes the conversion of the adjacency list to a CSRGraph, which
+	 * isCyclic(adj) makes on every call.
+	 */
+	@Benchmark
+	public boolean isCyclic() {
+		return GraphPractice.isCyclic(adj);
+	}
+
+	@Benchmark
+	public boolean isCyclicCSR() {
+		return GraphPractice.isCyclic(graph);
+	}
+
+	@Benchmark
+	public int countEdges() {
+		return GraphPractice.countEdges(adj);
+	}
+
+}
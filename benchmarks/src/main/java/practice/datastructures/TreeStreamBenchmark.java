@@ -0,0 +1,107 @@
+package practice.datastructures;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import practice.datastructures.TreeGraph.Vertex;
+
+
+/**
+ * Aggregations over the vertices of a binary TreeGraph through the
+ * traversal streams, sequential against parallel. A COMPLETE tree splits
+ * into even halves; a RANDOM tree, each vertex hung under a random vertex
+ * with a free child slot, splits unevenly and is much deeper.
+ *
+ * @author sarablinn
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class TreeStreamBenchmark {
+
+	public enum TreeShape { COMPLETE, RANDOM }
+
+	@Param({ "COMPLETE", "RANDOM" })
+	TreeShape shape;
+
+	@Param({ "65536", "1048576" })
+	int vertices;
+
+	private TreeGraph tree;
+
+	@Setup
+	public void setUp() {
+		SplittableRandom random = new SplittableRandom(42);
+		Vertex[] vertex = new Vertex[vertices];
+		// open[0, numOpen) are the vertices with a free child slot
+		Vertex[] open = new Vertex[vertices];
+		int numOpen = 0;
+		for (int v = 0; v < vertices; v++) {
+			vertex[v] = new Vertex(Integer.toString(v), random.nextInt(1000));
+			if (v == 0) {
+				open[numOpen++] = vertex[v];
+				continue;
+			}
+			if (shape == TreeShape.COMPLETE) {
+				Vertex parent = vertex[(v - 1) / 2];
+				if (v % 2 == 1) {
+					parent.setLeftChild(vertex[v]);
+				}
+				else {
+					parent.setRightChild(vertex[v]);
+				}
+			}
+			else {
+				int i = random.nextInt(numOpen);
+				Vertex parent = open[i];
+				if (parent.getLeftChild() == null && random.nextBoolean()) {
+					parent.setLeftChild(vertex[v]);
+				}
+				else if (parent.getRightChild() == null) {
+					parent.setRightChild(vertex[v]);
+				}
+				else {
+					parent.setLeftChild(vertex[v]);
+				}
+				if (parent.getLeftChild() != null && parent.getRightChild() != null) {
+					open[i] = open[--numOpen];
+				}
+				open[numOpen++] = vertex[v];
+			}
+		}
+		tree = new TreeGraph();
+		tree.setRoot(vertex[0]);
+	}
+
+	@Benchmark
+	public long sequentialSum() {
+		return tree.preorderStream().mapToLong(Vertex::getValue).sum();
+	}
+
+	@Benchmark
+	public long parallelSum() {
+		return tree.preorderStream().parallel().mapToLong(Vertex::getValue).sum();
+	}
+
+	@Benchmark
+	public long parallelPrefixCount() {
+		return tree.inorderStream().parallel().filter(v -> v.getName().startsWith("1")).count();
+	}
+
+}
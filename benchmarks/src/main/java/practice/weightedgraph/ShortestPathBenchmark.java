@@ -0,0 +1,79 @@
+package practice.weightedgraph;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import practice.datastructures.GraphGenerators;
+import practice.datastructures.GraphGenerators.EdgeList;
+import practice.datastructures.GraphGenerators.Shape;
+
+
+/**
+ * Single-source shortest paths from the hub of every generated shape, with
+ * weights from 1 to 100. WeightedGraph.BellmanFord() looks up every edge's
+ * ends in its index list, so it is measured on small graphs only; the
+ * array based searches are measured on the same graphs for comparison.
+ * The snapshot is built once, outside the measurement.
+ *
+ * @author sarablinn
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShortestPathBenchmark {
+
+	@Param({ "ERDOS_RENYI", "RMAT", "GRID", "CHAIN" })
+	Shape shape;
+
+	@Param({ "256", "1024" })
+	int vertices;
+
+	private WeightedGraph graph;
+	private GraphSnapshot snapshot;
+	private String source;
+	private int s;
+
+	@Setup
+	public void setUp() {
+		EdgeList edges = GraphGenerators.generate(shape, vertices, 42);
+		graph = edges.toWeightedGraph(100, 7);
+		snapshot = new GraphSnapshot(graph);
+		s = edges.hub();
+		source = Integer.toString(s);
+	}
+
+	@Benchmark
+	public int[] bellmanFord() {
+		return graph.BellmanFord(source);
+	}
+
+	@Benchmark
+	public long[] arrayBellmanFord() {
+		BellmanFord bellmanFord = new BellmanFord(snapshot);
+		bellmanFord.search(s);
+		return bellmanFord.lastDistances();
+	}
+
+	@Benchmark
+	public long[] dijkstra() {
+		Dijkstra dijkstra = new Dijkstra(snapshot);
+		dijkstra.search(s, -1);
+		return dijkstra.lastDistances();
+	}
+
+}